@@ -0,0 +1,74 @@
+package com.produsoft.workflow.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.ai.context")
+public class AiContextProperties {
+
+    /**
+     * Estimated tokens available for order summaries in the system message.
+     */
+    private int contextTokenBudget = 1500;
+
+    /**
+     * Estimated tokens available for recent conversation messages, sent verbatim.
+     */
+    private int historyTokenBudget = 1500;
+
+    /**
+     * Estimated tokens available for the summary of older messages that no longer fit verbatim.
+     */
+    private int historySummaryTokenBudget = 250;
+
+    /**
+     * Upper bound on the number of recent messages sent verbatim, whatever their size.
+     */
+    private int maxHistoryMessages = 20;
+
+    /**
+     * Messages allowed to accumulate past the verbatim window before they are folded into the stored summary.
+     */
+    private int checkpointInterval = 10;
+
+    public int getContextTokenBudget() {
+        return contextTokenBudget;
+    }
+
+    public void setContextTokenBudget(int contextTokenBudget) {
+        this.contextTokenBudget = contextTokenBudget;
+    }
+
+    public int getHistoryTokenBudget() {
+        return historyTokenBudget;
+    }
+
+    public void setHistoryTokenBudget(int historyTokenBudget) {
+        this.historyTokenBudget = historyTokenBudget;
+    }
+
+    public int getHistorySummaryTokenBudget() {
+        return historySummaryTokenBudget;
+    }
+
+    public void setHistorySummaryTokenBudget(int historySummaryTokenBudget) {
+        this.historySummaryTokenBudget = historySummaryTokenBudget;
+    }
+
+    public int getMaxHistoryMessages() {
+        return maxHistoryMessages;
+    }
+
+    public void setMaxHistoryMessages(int maxHistoryMessages) {
+        this.maxHistoryMessages = maxHistoryMessages;
+    }
+
+    public int getCheckpointInterval() {
+        return checkpointInterval;
+    }
+
+    public void setCheckpointInterval(int checkpointInterval) {
+        this.checkpointInterval = checkpointInterval;
+    }
+}
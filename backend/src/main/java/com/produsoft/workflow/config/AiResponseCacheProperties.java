@@ -0,0 +1,48 @@
+package com.produsoft.workflow.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.ai.response-cache")
+public class AiResponseCacheProperties {
+
+    /**
+     * Serve repeated questions from the cache while the workflow data they were answered from is unchanged.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of cached answers; the least recently used are evicted first.
+     */
+    private int maxEntries = 500;
+
+    /**
+     * Maximum total length, in characters, of the cached answers.
+     */
+    private long maxChars = 2_000_000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getMaxChars() {
+        return maxChars;
+    }
+
+    public void setMaxChars(long maxChars) {
+        this.maxChars = maxChars;
+    }
+}
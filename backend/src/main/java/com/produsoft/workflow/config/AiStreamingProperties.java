@@ -0,0 +1,102 @@
+package com.produsoft.workflow.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.ai.streaming")
+public class AiStreamingProperties {
+
+    /**
+     * Maximum number of AI responses streamed at the same time.
+     */
+    private int maxConcurrentStreams = 16;
+
+    /**
+     * Number of streams allowed to wait for a free slot before new requests are rejected with 503.
+     */
+    private int maxQueuedStreams = 32;
+
+    /**
+     * Run streams on virtual threads. When disabled, each admitted stream gets a dedicated platform thread.
+     */
+    private boolean virtualThreads = true;
+
+    /**
+     * Number of response lines requested from Ollama ahead of what has been forwarded to the browser.
+     */
+    private int upstreamWindow = 64;
+
+    /**
+     * Tokens are coalesced into one SSE frame until it reaches this many characters...
+     */
+    private int frameMaxChars = 256;
+
+    /**
+     * ...or this much time has passed since the frame's first token arrived.
+     */
+    private Duration frameInterval = Duration.ofMillis(50);
+
+    /**
+     * While a reply is streaming, the text so far is saved this often so a crash mid-generation does not lose
+     * it. Zero disables partial saves; the reply is then stored once, when it is complete.
+     */
+    private Duration partialSaveInterval = Duration.ofSeconds(10);
+
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    public void setMaxConcurrentStreams(int maxConcurrentStreams) {
+        this.maxConcurrentStreams = maxConcurrentStreams;
+    }
+
+    public int getMaxQueuedStreams() {
+        return maxQueuedStreams;
+    }
+
+    public void setMaxQueuedStreams(int maxQueuedStreams) {
+        this.maxQueuedStreams = maxQueuedStreams;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    public void setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    public int getUpstreamWindow() {
+        return upstreamWindow;
+    }
+
+    public void setUpstreamWindow(int upstreamWindow) {
+        this.upstreamWindow = upstreamWindow;
+    }
+
+    public int getFrameMaxChars() {
+        return frameMaxChars;
+    }
+
+    public void setFrameMaxChars(int frameMaxChars) {
+        this.frameMaxChars = frameMaxChars;
+    }
+
+    public Duration getFrameInterval() {
+        return frameInterval;
+    }
+
+    public void setFrameInterval(Duration frameInterval) {
+        this.frameInterval = frameInterval;
+    }
+
+    public Duration getPartialSaveInterval() {
+        return partialSaveInterval;
+    }
+
+    public void setPartialSaveInterval(Duration partialSaveInterval) {
+        this.partialSaveInterval = partialSaveInterval;
+    }
+}
@@ -0,0 +1,63 @@
+package com.produsoft.workflow.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.ai.stub")
+public class AiStubProperties {
+
+    /**
+     * Rate at which the stub model produces reply tokens.
+     */
+    private int tokensPerSecond = 50;
+
+    /**
+     * Delay before the first token, standing in for the model reading the prompt.
+     */
+    private Duration firstTokenLatency = Duration.ofMillis(300);
+
+    /**
+     * Number of tokens in every reply.
+     */
+    private int replyTokens = 60;
+
+    /**
+     * Fraction of requests, between 0 and 1, that fail. Failures are spread evenly over the request sequence,
+     * and a failing stream breaks off halfway through its reply.
+     */
+    private double errorRate = 0.0;
+
+    public int getTokensPerSecond() {
+        return tokensPerSecond;
+    }
+
+    public void setTokensPerSecond(int tokensPerSecond) {
+        this.tokensPerSecond = tokensPerSecond;
+    }
+
+    public Duration getFirstTokenLatency() {
+        return firstTokenLatency;
+    }
+
+    public void setFirstTokenLatency(Duration firstTokenLatency) {
+        this.firstTokenLatency = firstTokenLatency;
+    }
+
+    public int getReplyTokens() {
+        return replyTokens;
+    }
+
+    public void setReplyTokens(int replyTokens) {
+        this.replyTokens = replyTokens;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+}
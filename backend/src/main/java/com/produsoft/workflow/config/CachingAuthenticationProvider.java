@@ -0,0 +1,136 @@
+package com.produsoft.workflow.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * Remembers successful username/password authentications for a short time so stateless HTTP Basic
+ * requests do not pay for a BCrypt verification on every call. Entries are keyed by an HMAC of the
+ * credentials under a per-process random key, so neither plaintext passwords nor an offline-crackable
+ * digest are kept in memory. A hit is only honoured while the user still exists, is usable, and has the
+ * same stored password hash it had when the entry was created, and its authorities are always read from the
+ * current user record, so a password, role or account change takes effect on the next request without an
+ * explicit eviction. Failed attempts are never cached.
+ */
+public class CachingAuthenticationProvider implements AuthenticationProvider {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final AuthenticationProvider delegate;
+    private final UserDetailsService userDetailsService;
+    private final Duration ttl;
+    private final SecretKeySpec key;
+    private final Map<String, CachedAuthentication> cache;
+
+    public CachingAuthenticationProvider(AuthenticationProvider delegate,
+                                         UserDetailsService userDetailsService,
+                                         int maxEntries,
+                                         Duration ttl) {
+        this.delegate = delegate;
+        this.userDetailsService = userDetailsService;
+        this.ttl = ttl;
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        int capacity = Math.max(1, maxEntries);
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedAuthentication> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        if (username == null || !(credentials instanceof String password)) {
+            return delegate.authenticate(authentication);
+        }
+
+        String cacheKey = cacheKey(username, password);
+        Instant now = Instant.now();
+        CachedAuthentication cached;
+        synchronized (cache) {
+            cached = cache.get(cacheKey);
+        }
+        if (cached != null && now.isBefore(cached.expiresAt())) {
+            UserDetails current = currentUser(username);
+            if (current != null && isUsable(current) && Objects.equals(current.getPassword(), cached.passwordHash())) {
+                UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken.authenticated(
+                    current, null, current.getAuthorities());
+                result.setDetails(authentication.getDetails());
+                return result;
+            }
+        }
+        if (cached != null) {
+            synchronized (cache) {
+                cache.remove(cacheKey);
+            }
+        }
+
+        Authentication result = delegate.authenticate(authentication);
+        if (result != null && result.isAuthenticated()) {
+            UserDetails current = currentUser(username);
+            if (current != null) {
+                synchronized (cache) {
+                    cache.put(cacheKey, new CachedAuthentication(current.getPassword(), now.plus(ttl)));
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+
+    private UserDetails currentUser(String username) {
+        try {
+            return userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException ex) {
+            return null;
+        }
+    }
+
+    private static boolean isUsable(UserDetails user) {
+        return user.isEnabled()
+            && user.isAccountNonLocked()
+            && user.isAccountNonExpired()
+            && user.isCredentialsNonExpired();
+    }
+
+    private String cacheKey(String username, String password) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(password.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(mac.doFinal());
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", ex);
+        }
+    }
+
+    private record CachedAuthentication(String passwordHash, Instant expiresAt) {
+    }
+}
@@ -16,7 +16,7 @@ public class DataInitializer {
     @Bean
     CommandLineRunner seedOrders(OrderWorkflowService workflowService, StageChecklistService checklistService) {
         return args -> {
-            if (!workflowService.findAllOrders().isEmpty()) {
+            if (workflowService.hasOrders()) {
                 return;
             }
 
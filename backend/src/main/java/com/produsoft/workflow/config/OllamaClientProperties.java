@@ -1,5 +1,6 @@
 package com.produsoft.workflow.config;
 
+import java.time.Duration;
 import java.util.Optional;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
@@ -25,6 +26,43 @@ public class OllamaClientProperties {
      */
     private String apiKey;
 
+    /**
+     * Time allowed to open a connection to Ollama.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Time allowed for a complete non-streamed chat response.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(120);
+
+    /**
+     * Time allowed for a streamed chat to start answering; tokens then arrive at the model's pace.
+     */
+    private Duration streamResponseTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Maximum number of non-streamed chat calls in flight; further calls are rejected with 503 rather than
+     * queued. Streams are bounded separately by {@code app.ai.streaming.max-concurrent-streams}.
+     */
+    private int maxConcurrentRequests = 32;
+
+    /**
+     * Consecutive failed calls (connection errors, timeouts, 5xx and 429 responses) that open the circuit.
+     */
+    private int circuitFailureThreshold = 5;
+
+    /**
+     * How long an open circuit rejects calls before a single trial call is let through.
+     */
+    private Duration circuitOpenDuration = Duration.ofSeconds(30);
+
+    /**
+     * When set, a non-streamed chat that has not answered within this delay is sent a second time and the
+     * first response to arrive is used. Unset disables hedging.
+     */
+    private Duration hedgeDelay;
+
     public String getHost() {
         return host;
     }
@@ -45,6 +83,62 @@ public class OllamaClientProperties {
         this.apiKey = apiKey;
     }
 
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public Duration getStreamResponseTimeout() {
+        return streamResponseTimeout;
+    }
+
+    public void setStreamResponseTimeout(Duration streamResponseTimeout) {
+        this.streamResponseTimeout = streamResponseTimeout;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    public int getCircuitFailureThreshold() {
+        return circuitFailureThreshold;
+    }
+
+    public void setCircuitFailureThreshold(int circuitFailureThreshold) {
+        this.circuitFailureThreshold = circuitFailureThreshold;
+    }
+
+    public Duration getCircuitOpenDuration() {
+        return circuitOpenDuration;
+    }
+
+    public void setCircuitOpenDuration(Duration circuitOpenDuration) {
+        this.circuitOpenDuration = circuitOpenDuration;
+    }
+
+    public Duration getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    public void setHedgeDelay(Duration hedgeDelay) {
+        this.hedgeDelay = hedgeDelay;
+    }
+
     public Optional<String> resolveApiKey() {
         if (StringUtils.hasText(apiKey)) {
             return Optional.of(apiKey.trim());
@@ -1,5 +1,6 @@
 package com.produsoft.workflow.config;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -7,6 +8,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -29,9 +32,18 @@ public class SecurityConfig {
     @Value("${app.security.allowed-origins:http://localhost:3000}")
     private String allowedOrigins;
 
+    @Value("${app.security.auth-cache.max-entries:1024}")
+    private int authCacheMaxEntries;
+
+    @Value("${app.security.auth-cache.ttl:PT5M}")
+    private Duration authCacheTtl;
+
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http,
+                                                   UserDetailsService userDetailsService,
+                                                   PasswordEncoder passwordEncoder) throws Exception {
         http
+            .authenticationManager(new ProviderManager(authenticationProvider(userDetailsService, passwordEncoder)))
             .csrf(csrf -> csrf.disable())
             .cors(Customizer.withDefaults())
             .headers(headers -> headers.frameOptions(frame -> frame.disable()))
@@ -39,11 +51,14 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/h2-console/**").permitAll()
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                .requestMatchers("/actuator/health").permitAll()
+                .requestMatchers("/actuator/**").hasRole("SUPERVISOR")
                 .requestMatchers("/auth/me").authenticated()
                 .requestMatchers("/api/supervisor/**").hasRole("SUPERVISOR")
                 .requestMatchers("/api/operator/**").hasRole("OPERATOR")
                 .requestMatchers("/api/ai/**").hasAnyRole("OPERATOR", "SUPERVISOR")
                 .requestMatchers("/api/orders/**").hasAnyRole("OPERATOR", "SUPERVISOR")
+                .requestMatchers("/api/events/**").hasAnyRole("OPERATOR", "SUPERVISOR")
                 .anyRequest().authenticated())
             .httpBasic(Customizer.withDefaults());
         return http.build();
@@ -71,6 +86,17 @@ public class SecurityConfig {
         return new BCryptPasswordEncoder();
     }
 
+    /**
+     * Built for the filter chain rather than published as a bean, which would make Spring Security
+     * configure its global AuthenticationManager from it as well.
+     */
+    private CachingAuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                                 PasswordEncoder passwordEncoder) {
+        DaoAuthenticationProvider delegate = new DaoAuthenticationProvider(userDetailsService);
+        delegate.setPasswordEncoder(passwordEncoder);
+        return new CachingAuthenticationProvider(delegate, userDetailsService, authCacheMaxEntries, authCacheTtl);
+    }
+
     @Bean
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,51 @@
+package com.produsoft.workflow.config;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "app.workflow.events")
+public class WorkflowEventProperties {
+
+    /**
+     * Maximum number of undelivered events held per subscriber. Events for the same order are
+     * coalesced; once the buffer overflows it is discarded entirely and the subscriber is told to resync,
+     * since a client that resyncs reloads its state and has no use for the partial backlog.
+     */
+    private int subscriberBufferSize = 256;
+
+    /**
+     * Number of recent events retained for {@code Last-Event-ID} resume.
+     */
+    private int historySize = 1024;
+
+    /**
+     * Interval between keep-alive comments sent to idle subscribers.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(20);
+
+    public int getSubscriberBufferSize() {
+        return subscriberBufferSize;
+    }
+
+    public void setSubscriberBufferSize(int subscriberBufferSize) {
+        this.subscriberBufferSize = subscriberBufferSize;
+    }
+
+    public int getHistorySize() {
+        return historySize;
+    }
+
+    public void setHistorySize(int historySize) {
+        this.historySize = historySize;
+    }
+
+    public Duration getHeartbeatInterval() {
+        return heartbeatInterval;
+    }
+
+    public void setHeartbeatInterval(Duration heartbeatInterval) {
+        this.heartbeatInterval = heartbeatInterval;
+    }
+}
@@ -3,14 +3,14 @@ package com.produsoft.workflow.controller;
 import com.produsoft.workflow.dto.AiChatRequest;
 import com.produsoft.workflow.dto.AiChatResponse;
 import com.produsoft.workflow.dto.AiConversationResponse;
-import com.produsoft.workflow.dto.AiConversationSummaryResponse;
+import com.produsoft.workflow.dto.AiConversationPageResponse;
+import com.produsoft.workflow.dto.AiMessagePageResponse;
 import com.produsoft.workflow.dto.CreateConversationRequest;
 import com.produsoft.workflow.dto.SendMessageRequest;
 import com.produsoft.workflow.dto.UpdateConversationTitleRequest;
 import com.produsoft.workflow.service.AiChatService;
 import com.produsoft.workflow.service.AiConversationService;
 import jakarta.validation.Valid;
-import java.util.List;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
@@ -21,6 +21,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -29,6 +30,9 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 @RequestMapping("/api/ai")
 public class AiController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final AiChatService aiChatService;
     private final AiConversationService conversationService;
 
@@ -43,8 +47,11 @@ public class AiController {
     }
 
     @GetMapping("/conversations")
-    public List<AiConversationSummaryResponse> listConversations(Authentication authentication) {
-        return conversationService.listConversations(authentication.getName());
+    public AiConversationPageResponse listConversations(Authentication authentication,
+                                                        @RequestParam(value = "cursor", required = false) String cursor,
+                                                        @RequestParam(value = "limit", required = false) Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return conversationService.listConversations(authentication.getName(), cursor, pageSize);
     }
 
     @PostMapping("/conversations")
@@ -59,6 +66,14 @@ public class AiController {
         return conversationService.getConversation(authentication.getName(), conversationId);
     }
 
+    @GetMapping("/conversations/{conversationId}/messages")
+    public AiMessagePageResponse getMessages(Authentication authentication,
+                                             @PathVariable Long conversationId,
+                                             @RequestParam(required = false) Long before,
+                                             @RequestParam(defaultValue = "50") int limit) {
+        return conversationService.getMessages(authentication.getName(), conversationId, before, limit);
+    }
+
     @PostMapping(value = "/conversations/{conversationId}/messages", produces = MediaType.APPLICATION_JSON_VALUE)
     public AiConversationResponse sendMessage(Authentication authentication,
                                               @PathVariable Long conversationId,
@@ -2,6 +2,8 @@ package com.produsoft.workflow.controller;
 
 import com.produsoft.workflow.domain.StageState;
 import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.dto.BatchStageActionRequest;
+import com.produsoft.workflow.dto.BatchStageActionResponse;
 import com.produsoft.workflow.dto.ClaimStageRequest;
 import com.produsoft.workflow.dto.CompleteStageRequest;
 import com.produsoft.workflow.dto.FlagStageExceptionRequest;
@@ -14,6 +16,7 @@ import jakarta.validation.Valid;
 import java.util.List;
 import java.util.Locale;
 import java.util.stream.Collectors;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -40,9 +43,14 @@ public class OperatorController {
                                                 @RequestParam(value = "states", required = false) List<String> states) {
         StageType stageType = StageType.fromString(stage);
         List<StageState> parsedStates = parseStates(states);
-        return orderWorkflowService.fetchQueue(stageType, parsedStates).stream()
-            .map(mapper::toQueueItem)
-            .collect(Collectors.toList());
+        return orderWorkflowService.fetchQueue(stageType, parsedStates);
+    }
+
+    @GetMapping("/queue/next")
+    public ResponseEntity<WorkQueueItemResponse> getNext(@RequestParam("stage") String stage) {
+        return orderWorkflowService.nextInQueue(StageType.fromString(stage))
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.noContent().build());
     }
 
     @PostMapping("/orders/{orderId}/stages/{stage}/claim")
@@ -50,7 +58,7 @@ public class OperatorController {
                                           @PathVariable String stage,
                                           @Valid @RequestBody ClaimStageRequest request) {
         StageType stageType = StageType.fromString(stage);
-        return mapper.toStageResponse(orderWorkflowService.claimStage(orderId, stageType, request.assignee()));
+        return orderWorkflowService.claimStage(orderId, stageType, request.assignee());
     }
 
     @PostMapping("/orders/{orderId}/stages/{stage}/complete")
@@ -77,6 +85,11 @@ public class OperatorController {
         return mapper.toStageResponse(orderWorkflowService.updateChecklistItem(orderId, stageType, request));
     }
 
+    @PostMapping("/batch")
+    public BatchStageActionResponse applyBatch(@Valid @RequestBody BatchStageActionRequest request) {
+        return orderWorkflowService.applyBatch(request.actions());
+    }
+
     private List<StageState> parseStates(List<String> states) {
         if (states == null || states.isEmpty()) {
             return List.of();
@@ -1,38 +1,132 @@
 package com.produsoft.workflow.controller;
 
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.dto.BulkCreateOrdersRequest;
+import com.produsoft.workflow.dto.BulkCreateOrdersResponse;
 import com.produsoft.workflow.dto.CreateOrderRequest;
+import com.produsoft.workflow.dto.OrderImportResponse;
 import com.produsoft.workflow.dto.OrderMapper;
+import com.produsoft.workflow.dto.OrderPageResponse;
 import com.produsoft.workflow.dto.OrderResponse;
 import com.produsoft.workflow.dto.ReprioritizeOrderRequest;
+import com.produsoft.workflow.exception.InvalidStageActionException;
+import com.produsoft.workflow.repository.OrderFilter;
+import com.produsoft.workflow.service.OrderExportService;
+import com.produsoft.workflow.service.OrderFileFormat;
+import com.produsoft.workflow.service.OrderImportService;
+import com.produsoft.workflow.service.OrderPage;
 import com.produsoft.workflow.service.OrderWorkflowService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.List;
+import java.util.Locale;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final OrderWorkflowService orderWorkflowService;
+    private final OrderImportService orderImportService;
+    private final OrderExportService orderExportService;
     private final OrderMapper mapper;
+    private final Duration exportTimeout;
 
-    public OrderController(OrderWorkflowService orderWorkflowService, OrderMapper mapper) {
+    public OrderController(OrderWorkflowService orderWorkflowService,
+                           OrderImportService orderImportService,
+                           OrderExportService orderExportService,
+                           OrderMapper mapper,
+                           @Value("${app.workflow.export.timeout:PT30M}") Duration exportTimeout) {
         this.orderWorkflowService = orderWorkflowService;
+        this.orderImportService = orderImportService;
+        this.orderExportService = orderExportService;
         this.mapper = mapper;
+        this.exportTimeout = exportTimeout;
     }
 
     @GetMapping
-    public List<OrderResponse> listOrders() {
-        return orderWorkflowService.findAllOrders().stream()
+    public OrderPageResponse listOrders(@RequestParam(value = "cursor", required = false) String cursor,
+                                        @RequestParam(value = "limit", required = false) Integer limit,
+                                        @RequestParam(value = "overallState", required = false) List<String> overallStates,
+                                        @RequestParam(value = "currentStage", required = false) List<String> currentStages,
+                                        @RequestParam(value = "minPriority", required = false) Integer minPriority,
+                                        @RequestParam(value = "maxPriority", required = false) Integer maxPriority,
+                                        @RequestParam(value = "updatedFrom", required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedFrom,
+                                        @RequestParam(value = "updatedTo", required = false)
+                                        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedTo) {
+        OrderFilter filter = new OrderFilter(
+            parseStates(overallStates),
+            parseStages(currentStages),
+            minPriority,
+            maxPriority,
+            updatedFrom,
+            updatedTo);
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        OrderPage page = orderWorkflowService.findOrders(filter, cursor, pageSize);
+        List<OrderResponse> items = page.orders().stream()
             .map(mapper::toOrderResponse)
             .collect(Collectors.toList());
+        return new OrderPageResponse(items, page.nextCursor(), page.hasMore());
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@RequestParam(value = "format", required = false) String format,
+                                                              @RequestParam(value = "gzip", defaultValue = "false") boolean gzip,
+                                                              HttpServletRequest request) {
+        OrderFileFormat exportFormat = parseFormat(format);
+        // Only the export streams for this long; every other async request keeps the default timeout.
+        WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest().setTimeout(exportTimeout.toMillis());
+        String extension = exportFormat == OrderFileFormat.CSV ? "csv" : "ndjson";
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                try (GZIPOutputStream compressed = new GZIPOutputStream(out, 64 * 1024)) {
+                    orderExportService.export(exportFormat, compressed);
+                }
+            } else {
+                orderExportService.export(exportFormat, out);
+            }
+        };
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(exportFormat == OrderFileFormat.CSV
+                ? OrderFileFormat.CSV_MEDIA_TYPE
+                : OrderFileFormat.NDJSON_MEDIA_TYPE))
+            .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("orders." + extension)
+                .build()
+                .toString());
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
     }
 
     @GetMapping("/{id}")
@@ -45,8 +139,71 @@ public class OrderController {
         return mapper.toOrderResponse(orderWorkflowService.createOrder(request));
     }
 
+    @PostMapping("/bulk")
+    public BulkCreateOrdersResponse createOrders(@Valid @RequestBody BulkCreateOrdersRequest request) {
+        return orderImportService.createOrders(request.orders());
+    }
+
+    @PostMapping(value = "/import", consumes = {
+        OrderFileFormat.NDJSON_MEDIA_TYPE,
+        OrderFileFormat.CSV_MEDIA_TYPE,
+        MediaType.TEXT_PLAIN_VALUE,
+        MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public OrderImportResponse importOrders(@RequestParam(value = "format", required = false) String format,
+                                            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                            InputStream body) throws IOException {
+        OrderFileFormat importFormat = parseFormat(format, contentType);
+        return orderImportService.importOrders(new InputStreamReader(body, StandardCharsets.UTF_8), importFormat);
+    }
+
     @PatchMapping("/{id}/priority")
     public OrderResponse updatePriority(@PathVariable Long id, @Valid @RequestBody ReprioritizeOrderRequest request) {
         return mapper.toOrderResponse(orderWorkflowService.updatePriority(id, request));
     }
+
+    private OrderFileFormat parseFormat(String format) {
+        return parseFormat(format, null);
+    }
+
+    private OrderFileFormat parseFormat(String format, String contentType) {
+        try {
+            return OrderFileFormat.resolve(format, contentType);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidStageActionException("Unsupported file format: " + format);
+        }
+    }
+
+    private List<StageState> parseStates(List<String> states) {
+        if (states == null || states.isEmpty()) {
+            return List.of();
+        }
+        return states.stream()
+            .map(this::parseState)
+            .collect(Collectors.toList());
+    }
+
+    private StageState parseState(String state) {
+        try {
+            return StageState.valueOf(state.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidStageActionException("Unknown overall state: " + state);
+        }
+    }
+
+    private List<StageType> parseStages(List<String> stages) {
+        if (stages == null || stages.isEmpty()) {
+            return List.of();
+        }
+        return stages.stream()
+            .map(this::parseStage)
+            .collect(Collectors.toList());
+    }
+
+    private StageType parseStage(String stage) {
+        try {
+            return StageType.fromString(stage);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidStageActionException("Unknown stage: " + stage);
+        }
+    }
 }
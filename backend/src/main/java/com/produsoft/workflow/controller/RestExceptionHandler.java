@@ -1,10 +1,15 @@
 package com.produsoft.workflow.controller;
 
+import com.produsoft.workflow.exception.AiCapacityException;
 import com.produsoft.workflow.exception.AiClientException;
 import com.produsoft.workflow.exception.InvalidStageActionException;
 import com.produsoft.workflow.exception.NotFoundException;
+import com.produsoft.workflow.exception.StageConflictException;
+import jakarta.persistence.OptimisticLockException;
 import java.time.Instant;
 import java.util.Map;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -31,6 +36,21 @@ public class RestExceptionHandler {
                 "status", HttpStatus.BAD_REQUEST.value()));
     }
 
+    @ExceptionHandler({
+        StageConflictException.class,
+        OptimisticLockingFailureException.class,
+        OptimisticLockException.class})
+    public ResponseEntity<Map<String, Object>> handleConflict(RuntimeException ex) {
+        String message = ex instanceof StageConflictException
+            ? ex.getMessage()
+            : "The order was changed by someone else. Reload it and try again.";
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+            .body(Map.of(
+                "timestamp", Instant.now(),
+                "message", message,
+                "status", HttpStatus.CONFLICT.value()));
+    }
+
     @ExceptionHandler(AiClientException.class)
     public ResponseEntity<Map<String, Object>> handleAiClient(AiClientException ex) {
         return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
@@ -40,6 +60,16 @@ public class RestExceptionHandler {
                 "status", HttpStatus.BAD_GATEWAY.value()));
     }
 
+    @ExceptionHandler(AiCapacityException.class)
+    public ResponseEntity<Map<String, Object>> handleAiCapacity(AiCapacityException ex) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "5")
+            .body(Map.of(
+                "timestamp", Instant.now(),
+                "message", ex.getMessage(),
+                "status", HttpStatus.SERVICE_UNAVAILABLE.value()));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGeneric(Exception ex) {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
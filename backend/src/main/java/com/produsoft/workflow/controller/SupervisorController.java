@@ -3,9 +3,11 @@ package com.produsoft.workflow.controller;
 import com.produsoft.workflow.domain.StageType;
 import com.produsoft.workflow.dto.OrderMapper;
 import com.produsoft.workflow.dto.OrderStageStatusResponse;
+import com.produsoft.workflow.dto.QueueIndexConsistencyResponse;
 import com.produsoft.workflow.dto.SupervisorDecisionRequest;
 import com.produsoft.workflow.dto.WipSummaryResponse;
 import com.produsoft.workflow.service.OrderWorkflowService;
+import com.produsoft.workflow.service.WorkQueueIndex;
 import jakarta.validation.Valid;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -20,10 +22,14 @@ public class SupervisorController {
 
     private final OrderWorkflowService orderWorkflowService;
     private final OrderMapper mapper;
+    private final WorkQueueIndex workQueueIndex;
 
-    public SupervisorController(OrderWorkflowService orderWorkflowService, OrderMapper mapper) {
+    public SupervisorController(OrderWorkflowService orderWorkflowService,
+                                OrderMapper mapper,
+                                WorkQueueIndex workQueueIndex) {
         this.orderWorkflowService = orderWorkflowService;
         this.mapper = mapper;
+        this.workQueueIndex = workQueueIndex;
     }
 
     @GetMapping("/wip")
@@ -31,6 +37,17 @@ public class SupervisorController {
         return orderWorkflowService.buildWipSummary();
     }
 
+    @GetMapping("/queue-index/consistency")
+    public QueueIndexConsistencyResponse queueIndexConsistency() {
+        return workQueueIndex.checkConsistency();
+    }
+
+    @PostMapping("/queue-index/rebuild")
+    public QueueIndexConsistencyResponse rebuildQueueIndex() {
+        workQueueIndex.rebuild();
+        return workQueueIndex.checkConsistency();
+    }
+
     @PostMapping("/orders/{orderId}/stages/{stage}/approve-skip")
     public OrderStageStatusResponse approveSkip(@PathVariable Long orderId,
                                                 @PathVariable String stage,
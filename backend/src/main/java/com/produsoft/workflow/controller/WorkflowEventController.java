@@ -0,0 +1,69 @@
+package com.produsoft.workflow.controller;
+
+import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.exception.InvalidStageActionException;
+import com.produsoft.workflow.service.WorkflowEventBroadcaster;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/events")
+public class WorkflowEventController {
+
+    private final WorkflowEventBroadcaster broadcaster;
+
+    public WorkflowEventController(WorkflowEventBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(Authentication authentication,
+                                @RequestParam(value = "stages", required = false) List<String> stages,
+                                @RequestHeader(value = "Last-Event-ID", required = false) String lastEventIdHeader,
+                                @RequestParam(value = "lastEventId", required = false) String lastEventIdParam) {
+        boolean supervisor = authentication.getAuthorities().stream()
+            .anyMatch(authority -> "ROLE_SUPERVISOR".equals(authority.getAuthority()));
+        String lastEventId = StringUtils.hasText(lastEventIdHeader) ? lastEventIdHeader : lastEventIdParam;
+        return broadcaster.subscribe(parseStages(stages), supervisor, parseEventId(lastEventId));
+    }
+
+    private Set<StageType> parseStages(List<String> stages) {
+        Set<StageType> parsed = EnumSet.noneOf(StageType.class);
+        if (stages == null) {
+            return parsed;
+        }
+        for (String value : stages) {
+            if (!StringUtils.hasText(value)) {
+                continue;
+            }
+            try {
+                parsed.add(StageType.fromString(value.trim()));
+            } catch (IllegalArgumentException ex) {
+                throw new InvalidStageActionException("Unknown stage: " + value);
+            }
+        }
+        return parsed;
+    }
+
+    private Long parseEventId(String value) {
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException ex) {
+            // An id we never issued cannot be resumed; treat it like a stale one.
+            return -1L;
+        }
+    }
+}
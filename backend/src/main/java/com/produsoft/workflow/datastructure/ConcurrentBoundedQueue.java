@@ -0,0 +1,135 @@
+package com.produsoft.workflow.datastructure;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded multi-producer, multi-consumer FIFO {@link Queue} on a power-of-two ring. Producers and consumers
+ * claim positions with a CAS on their own counter and each slot carries a sequence number saying whether it is
+ * ready to be written or read, so no lock is taken. {@link #offer} returns {@code false} only when the queue
+ * is full and {@link #poll} returns {@code null} only when it is empty; if the slot they claimed is still
+ * being handed over by another thread they spin briefly instead of reporting a false full or empty.
+ */
+public class ConcurrentBoundedQueue<T> {
+    private static final int SPINS_BEFORE_YIELD = 64;
+
+    private final AtomicReferenceArray<T> elements;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+
+    public ConcurrentBoundedQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30");
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size != capacity) {
+            size <<= 1;
+        }
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.mask = size - 1;
+    }
+
+    public boolean offer(T value) {
+        Objects.requireNonNull(value, "ConcurrentBoundedQueue does not support null elements");
+        long position = tail.get();
+        int spins = 0;
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.getAcquire(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.setPlain(index, value);
+                    sequences.setRelease(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                // The slot still holds the element from one lap ago.
+                if (head.get() + capacity() <= position) {
+                    return false;
+                }
+                spins = backOff(spins);
+            }
+            position = tail.get();
+        }
+    }
+
+    public T poll() {
+        long position = head.get();
+        int spins = 0;
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.getAcquire(index) - (position + 1);
+            if (difference == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    T value = elements.getPlain(index);
+                    elements.setPlain(index, null);
+                    sequences.setRelease(index, position + capacity());
+                    return value;
+                }
+            } else if (difference < 0) {
+                // Nothing published here yet: empty, unless a producer has claimed the slot.
+                if (tail.get() <= position) {
+                    return null;
+                }
+                spins = backOff(spins);
+            }
+            position = head.get();
+        }
+    }
+
+    public void enqueue(T value) {
+        if (!offer(value)) {
+            throw new IllegalStateException("Queue is full");
+        }
+    }
+
+    public T dequeue() {
+        T value = poll();
+        if (value == null) {
+            throw new NoSuchElementException("Queue is empty");
+        }
+        return value;
+    }
+
+    /**
+     * A snapshot that may already be stale when it returns.
+     */
+    public int size() {
+        while (true) {
+            long observedHead = head.get();
+            long observedTail = tail.get();
+            if (head.get() == observedHead) {
+                return (int) Math.max(0, Math.min(observedTail - observedHead, capacity()));
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Spins while the other thread is likely still running, then yields in case it has been descheduled.
+     */
+    private static int backOff(int spins) {
+        if (spins < SPINS_BEFORE_YIELD) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+        return spins + 1;
+    }
+}
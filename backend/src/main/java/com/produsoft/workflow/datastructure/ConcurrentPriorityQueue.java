@@ -0,0 +1,61 @@
+package com.produsoft.workflow.datastructure;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe {@link PriorityQueue} on a lock-free skip list. Each element is tagged with an insertion sequence
+ * so equal elements can coexist and leave in insertion order; {@link #poll} removes the head atomically, so
+ * concurrent consumers never receive the same element.
+ */
+public class ConcurrentPriorityQueue<T extends Comparable<? super T>> {
+    private final ConcurrentSkipListSet<Entry<T>> entries = new ConcurrentSkipListSet<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public void offer(T value) {
+        Objects.requireNonNull(value, "ConcurrentPriorityQueue does not support null elements");
+        entries.add(new Entry<>(value, sequence.getAndIncrement()));
+    }
+
+    /**
+     * Removes and returns the smallest element, or returns {@code null} when the queue is empty.
+     */
+    public T poll() {
+        Entry<T> head = entries.pollFirst();
+        return head == null ? null : head.value;
+    }
+
+    /**
+     * Returns the smallest element without removing it, or {@code null} when the queue is empty.
+     */
+    public T peek() {
+        Iterator<Entry<T>> iterator = entries.iterator();
+        return iterator.hasNext() ? iterator.next().value : null;
+    }
+
+    /**
+     * Counts the elements by walking the skip list, so it is O(n) and only a snapshot under concurrent updates.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    private record Entry<T extends Comparable<? super T>>(T value, long sequence) implements Comparable<Entry<T>> {
+
+        @Override
+        public int compareTo(Entry<T> other) {
+            int result = value.compareTo(other.value);
+            return result != 0 ? result : Long.compare(sequence, other.sequence);
+        }
+    }
+}
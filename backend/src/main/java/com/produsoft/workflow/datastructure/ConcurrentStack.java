@@ -0,0 +1,71 @@
+package com.produsoft.workflow.datastructure;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free {@link Stack} (Treiber stack): the top is an atomic reference to an immutable node and push and pop
+ * each swing it with a single CAS. Nodes are never reused, so the CAS cannot succeed on a recycled node.
+ */
+public class ConcurrentStack<T> {
+    private final AtomicReference<Node<T>> top = new AtomicReference<>();
+    private final AtomicInteger size = new AtomicInteger();
+
+    public void push(T value) {
+        Objects.requireNonNull(value, "ConcurrentStack does not support null elements");
+        Node<T> node;
+        Node<T> current;
+        do {
+            current = top.get();
+            node = new Node<>(value, current);
+        } while (!top.compareAndSet(current, node));
+        size.incrementAndGet();
+    }
+
+    /**
+     * Pops the top element, or returns {@code null} when the stack is empty.
+     */
+    public T tryPop() {
+        Node<T> current;
+        do {
+            current = top.get();
+            if (current == null) {
+                return null;
+            }
+        } while (!top.compareAndSet(current, current.next));
+        size.decrementAndGet();
+        return current.value;
+    }
+
+    public T pop() {
+        T value = tryPop();
+        if (value == null) {
+            throw new NoSuchElementException("Stack is empty");
+        }
+        return value;
+    }
+
+    public T peek() {
+        Node<T> current = top.get();
+        if (current == null) {
+            throw new NoSuchElementException("Stack is empty");
+        }
+        return current.value;
+    }
+
+    /**
+     * A count that briefly lags the stack while a push or pop is completing.
+     */
+    public int size() {
+        return Math.max(0, size.get());
+    }
+
+    public boolean isEmpty() {
+        return top.get() == null;
+    }
+
+    private record Node<T>(T value, Node<T> next) {
+    }
+}
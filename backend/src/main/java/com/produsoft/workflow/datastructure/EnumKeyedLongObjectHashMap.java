@@ -0,0 +1,62 @@
+package com.produsoft.workflow.datastructure;
+
+import java.util.Objects;
+
+/**
+ * Map keyed by an enum constant and a {@code long}, such as a stage and an order id: one
+ * {@link LongObjectHashMap} per constant, picked by ordinal, so neither half of the key is boxed or combined
+ * into a composite key object.
+ */
+public class EnumKeyedLongObjectHashMap<E extends Enum<E>, V> {
+    private final LongObjectHashMap<V>[] maps;
+
+    @SuppressWarnings("unchecked")
+    public EnumKeyedLongObjectHashMap(Class<E> enumType) {
+        E[] constants = Objects.requireNonNull(enumType, "Enum type is required").getEnumConstants();
+        this.maps = (LongObjectHashMap<V>[]) new LongObjectHashMap[constants.length];
+        for (int i = 0; i < maps.length; i++) {
+            maps[i] = new LongObjectHashMap<>();
+        }
+    }
+
+    public V get(E group, long key) {
+        return of(group).get(key);
+    }
+
+    public boolean containsKey(E group, long key) {
+        return of(group).containsKey(key);
+    }
+
+    public V put(E group, long key, V value) {
+        return of(group).put(key, value);
+    }
+
+    public V remove(E group, long key) {
+        return of(group).remove(key);
+    }
+
+    /**
+     * The live map for one constant; changes to it are changes to this map.
+     */
+    public LongObjectHashMap<V> of(E group) {
+        return maps[Objects.requireNonNull(group, "Enum key is required").ordinal()];
+    }
+
+    public int size() {
+        int size = 0;
+        for (LongObjectHashMap<V> map : maps) {
+            size += map.size();
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        for (LongObjectHashMap<V> map : maps) {
+            map.clear();
+        }
+    }
+}
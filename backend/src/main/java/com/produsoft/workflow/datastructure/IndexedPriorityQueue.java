@@ -0,0 +1,205 @@
+package com.produsoft.workflow.datastructure;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Binary min-heap like {@link PriorityQueue}, but {@link #offer} returns a {@link Handle} that tracks the
+ * element's heap slot, so an element can be re-keyed or removed in O(log n) without searching for it.
+ */
+public class IndexedPriorityQueue<T extends Comparable<? super T>> {
+    private static final int DEFAULT_CAPACITY = 16;
+    private Handle<T>[] heap;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public IndexedPriorityQueue() {
+        this.heap = (Handle<T>[]) new Handle[DEFAULT_CAPACITY];
+    }
+
+    public Handle<T> offer(T value) {
+        Objects.requireNonNull(value, "IndexedPriorityQueue does not support null elements");
+        ensureCapacity(size + 1);
+        Handle<T> handle = new Handle<>(this, value);
+        place(handle, size);
+        size++;
+        siftUp(handle.index);
+        return handle;
+    }
+
+    public T poll() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("IndexedPriorityQueue is empty");
+        }
+        Handle<T> root = heap[0];
+        removeAt(0);
+        return root.value;
+    }
+
+    public T peek() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("IndexedPriorityQueue is empty");
+        }
+        return heap[0].value;
+    }
+
+    public Handle<T> peekHandle() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("IndexedPriorityQueue is empty");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Replaces the handle's value with one that orders no later than the current value.
+     */
+    public void decreaseKey(Handle<T> handle, T value) {
+        checkQueued(handle);
+        Objects.requireNonNull(value, "IndexedPriorityQueue does not support null elements");
+        if (value.compareTo(handle.value) > 0) {
+            throw new IllegalArgumentException("New key orders after the current key");
+        }
+        handle.value = value;
+        siftUp(handle.index);
+    }
+
+    /**
+     * Replaces the handle's value with one that orders no earlier than the current value.
+     */
+    public void increaseKey(Handle<T> handle, T value) {
+        checkQueued(handle);
+        Objects.requireNonNull(value, "IndexedPriorityQueue does not support null elements");
+        if (value.compareTo(handle.value) < 0) {
+            throw new IllegalArgumentException("New key orders before the current key");
+        }
+        handle.value = value;
+        siftDown(handle.index);
+    }
+
+    /**
+     * Replaces the handle's value whichever way it moves.
+     */
+    public void update(Handle<T> handle, T value) {
+        checkQueued(handle);
+        Objects.requireNonNull(value, "IndexedPriorityQueue does not support null elements");
+        int direction = value.compareTo(handle.value);
+        handle.value = value;
+        if (direction < 0) {
+            siftUp(handle.index);
+        } else if (direction > 0) {
+            siftDown(handle.index);
+        }
+    }
+
+    public boolean remove(Handle<T> handle) {
+        if (!contains(handle)) {
+            return false;
+        }
+        removeAt(handle.index);
+        return true;
+    }
+
+    public boolean contains(Handle<T> handle) {
+        return handle != null && handle.owner == this && handle.index >= 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            heap[i].index = -1;
+            heap[i] = null;
+        }
+        size = 0;
+    }
+
+    private void checkQueued(Handle<T> handle) {
+        if (!contains(handle)) {
+            throw new NoSuchElementException("Handle is not queued in this IndexedPriorityQueue");
+        }
+    }
+
+    private void removeAt(int index) {
+        Handle<T> removed = heap[index];
+        size--;
+        if (index != size) {
+            Handle<T> moved = heap[size];
+            place(moved, index);
+            heap[size] = null;
+            // The moved element may belong above or below its new slot.
+            siftDown(index);
+            siftUp(moved.index);
+        } else {
+            heap[size] = null;
+        }
+        removed.index = -1;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= heap.length) {
+            return;
+        }
+        heap = Arrays.copyOf(heap, heap.length + (heap.length >> 1));
+    }
+
+    private void siftUp(int index) {
+        Handle<T> moving = heap[index];
+        int current = index;
+        while (current > 0) {
+            int parent = (current - 1) >>> 1;
+            if (moving.value.compareTo(heap[parent].value) >= 0) {
+                break;
+            }
+            place(heap[parent], current);
+            current = parent;
+        }
+        place(moving, current);
+    }
+
+    private void siftDown(int index) {
+        Handle<T> moving = heap[index];
+        int current = index;
+        int half = size >>> 1;
+        while (current < half) {
+            int left = (current << 1) + 1;
+            int right = left + 1;
+            int smallest = left;
+            if (right < size && heap[right].value.compareTo(heap[left].value) < 0) {
+                smallest = right;
+            }
+            if (moving.value.compareTo(heap[smallest].value) <= 0) {
+                break;
+            }
+            place(heap[smallest], current);
+            current = smallest;
+        }
+        place(moving, current);
+    }
+
+    private void place(Handle<T> handle, int index) {
+        heap[index] = handle;
+        handle.index = index;
+    }
+
+    public static final class Handle<T> {
+        private final Object owner;
+        private T value;
+        private int index = -1;
+
+        private Handle(Object owner, T value) {
+            this.owner = owner;
+            this.value = value;
+        }
+
+        public T value() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.produsoft.workflow.datastructure;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Set of primitive {@code long}s in one open-addressed array with linear probing, so adding an element
+ * allocates nothing and a lookup scans adjacent slots instead of chasing nodes. Zero marks a free slot and is
+ * tracked separately; removal shifts the rest of the probe run back rather than leaving tombstones.
+ */
+public class LongHashSet {
+    private long[] keys;
+    private int mask;
+    private boolean hasZero;
+    private int size;
+
+    public LongHashSet() {
+        this.keys = new long[LongHashing.DEFAULT_CAPACITY];
+        this.mask = keys.length - 1;
+    }
+
+    public boolean add(long value) {
+        if (value == 0) {
+            if (hasZero) {
+                return false;
+            }
+            hasZero = true;
+            size++;
+            return true;
+        }
+        int index = LongHashing.mix(value) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = value;
+        if (++size > LongHashing.threshold(keys.length)) {
+            resize();
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return hasZero;
+        }
+        int index = LongHashing.mix(value) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public boolean remove(long value) {
+        if (value == 0) {
+            if (!hasZero) {
+                return false;
+            }
+            hasZero = false;
+            size--;
+            return true;
+        }
+        int index = LongHashing.mix(value) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == value) {
+                shiftBack(index);
+                size--;
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    public void forEach(LongConsumer action) {
+        if (hasZero) {
+            action.accept(0L);
+        }
+        for (long key : keys) {
+            if (key != 0) {
+                action.accept(key);
+            }
+        }
+    }
+
+    public long[] toArray() {
+        long[] values = new long[size];
+        int next = hasZero ? 1 : 0;
+        for (long key : keys) {
+            if (key != 0) {
+                values[next++] = key;
+            }
+        }
+        return values;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        hasZero = false;
+        size = 0;
+    }
+
+    private void shiftBack(int freed) {
+        int current = freed;
+        while (true) {
+            current = (current + 1) & mask;
+            long key = keys[current];
+            if (key == 0) {
+                keys[freed] = 0;
+                return;
+            }
+            if (LongHashing.canShiftBack(freed, LongHashing.mix(key) & mask, current)) {
+                keys[freed] = key;
+                freed = current;
+            }
+        }
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        keys = new long[LongHashing.grow(oldKeys.length)];
+        mask = keys.length - 1;
+        for (long key : oldKeys) {
+            if (key != 0) {
+                int index = LongHashing.mix(key) & mask;
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+            }
+        }
+    }
+}
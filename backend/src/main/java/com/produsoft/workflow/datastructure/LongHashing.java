@@ -0,0 +1,40 @@
+package com.produsoft.workflow.datastructure;
+
+/**
+ * Shared sizing and hashing for the open-addressing {@code long} collections. Tables are powers of two and
+ * keys are spread with a Fibonacci multiply so sequential ids do not cluster under linear probing.
+ */
+final class LongHashing {
+    static final int DEFAULT_CAPACITY = 16;
+    static final float LOAD_FACTOR = 0.75f;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private LongHashing() {
+    }
+
+    static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    static int threshold(int capacity) {
+        return (int) (capacity * LOAD_FACTOR);
+    }
+
+    static int grow(int capacity) {
+        if (capacity >= MAX_CAPACITY) {
+            throw new IllegalStateException("Hash table cannot grow beyond " + MAX_CAPACITY + " slots");
+        }
+        return capacity << 1;
+    }
+
+    /**
+     * Whether an entry found at {@code current}, whose probe starts at {@code ideal}, may move back into the
+     * freed slot {@code freed}: true unless its ideal slot lies cyclically in {@code (freed, current]}.
+     */
+    static boolean canShiftBack(int freed, int ideal, int current) {
+        return freed <= current
+            ? freed >= ideal || ideal > current
+            : freed >= ideal && ideal > current;
+    }
+}
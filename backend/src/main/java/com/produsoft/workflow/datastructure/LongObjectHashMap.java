@@ -0,0 +1,169 @@
+package com.produsoft.workflow.datastructure;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Map from primitive {@code long} keys to non-null values, stored in parallel open-addressed arrays with linear
+ * probing like {@link LongHashSet}: no entry objects, no boxed keys. {@link #get} returns {@code null} for a
+ * missing key.
+ */
+public class LongObjectHashMap<V> {
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private Object zeroValue;
+    private int size;
+
+    public LongObjectHashMap() {
+        this.keys = new long[LongHashing.DEFAULT_CAPACITY];
+        this.values = new Object[LongHashing.DEFAULT_CAPACITY];
+        this.mask = keys.length - 1;
+    }
+
+    public V get(long key) {
+        if (key == 0) {
+            return cast(zeroValue);
+        }
+        int index = indexOf(key);
+        return index < 0 ? null : cast(values[index]);
+    }
+
+    public V getOrDefault(long key, V defaultValue) {
+        V value = get(key);
+        return value == null ? defaultValue : value;
+    }
+
+    public boolean containsKey(long key) {
+        return key == 0 ? zeroValue != null : indexOf(key) >= 0;
+    }
+
+    public V put(long key, V value) {
+        Objects.requireNonNull(value, "LongObjectHashMap does not support null values");
+        if (key == 0) {
+            V previous = cast(zeroValue);
+            zeroValue = value;
+            if (previous == null) {
+                size++;
+            }
+            return previous;
+        }
+        int index = LongHashing.mix(key) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                V previous = cast(values[index]);
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        if (++size > LongHashing.threshold(keys.length)) {
+            resize();
+        }
+        return null;
+    }
+
+    public V remove(long key) {
+        if (key == 0) {
+            V previous = cast(zeroValue);
+            if (previous != null) {
+                zeroValue = null;
+                size--;
+            }
+            return previous;
+        }
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = cast(values[index]);
+        shiftBack(index);
+        size--;
+        return previous;
+    }
+
+    public void forEach(EntryConsumer<? super V> action) {
+        if (zeroValue != null) {
+            action.accept(0L, cast(zeroValue));
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                action.accept(keys[i], cast(values[i]));
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(values, null);
+        zeroValue = null;
+        size = 0;
+    }
+
+    private int indexOf(long key) {
+        int index = LongHashing.mix(key) & mask;
+        while (keys[index] != 0) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void shiftBack(int freed) {
+        int current = freed;
+        while (true) {
+            current = (current + 1) & mask;
+            long key = keys[current];
+            if (key == 0) {
+                keys[freed] = 0;
+                values[freed] = null;
+                return;
+            }
+            if (LongHashing.canShiftBack(freed, LongHashing.mix(key) & mask, current)) {
+                keys[freed] = key;
+                values[freed] = values[current];
+                freed = current;
+            }
+        }
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[LongHashing.grow(oldKeys.length)];
+        values = new Object[keys.length];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int index = LongHashing.mix(oldKeys[i]) & mask;
+                while (keys[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cast(Object value) {
+        return (V) value;
+    }
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(long key, V value);
+    }
+}
@@ -0,0 +1,206 @@
+package com.produsoft.workflow.datastructure;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Addressable heap of {@code long} ids keyed by an {@code int} priority and a {@code long} rank, kept in
+ * parallel primitive arrays so nothing is boxed and no {@code Comparable} is dispatched. The head is the
+ * highest priority, then the lowest rank (for example a creation timestamp), then the lowest id.
+ * {@link #offer} returns an {@code int} handle for O(log n) {@link #update} and {@link #remove}; a handle is
+ * recycled once its element leaves the queue, so callers must drop it at that point.
+ */
+public class LongPriorityQueue {
+    private static final int DEFAULT_CAPACITY = 16;
+    private int[] heap;
+    private int[] positions;
+    private long[] ids;
+    private int[] priorities;
+    private long[] ranks;
+    private int[] freeHandles;
+    private int freeCount;
+    private int handleCount;
+    private int size;
+
+    public LongPriorityQueue() {
+        this.heap = new int[DEFAULT_CAPACITY];
+        this.positions = new int[DEFAULT_CAPACITY];
+        this.ids = new long[DEFAULT_CAPACITY];
+        this.priorities = new int[DEFAULT_CAPACITY];
+        this.ranks = new long[DEFAULT_CAPACITY];
+        this.freeHandles = new int[DEFAULT_CAPACITY];
+    }
+
+    public int offer(long id, int priority, long rank) {
+        int handle = allocateHandle();
+        ids[handle] = id;
+        priorities[handle] = priority;
+        ranks[handle] = rank;
+        place(handle, size);
+        size++;
+        siftUp(positions[handle]);
+        return handle;
+    }
+
+    public long peek() {
+        return ids[peekHandle()];
+    }
+
+    public int peekHandle() {
+        if (isEmpty()) {
+            throw new NoSuchElementException("LongPriorityQueue is empty");
+        }
+        return heap[0];
+    }
+
+    public long poll() {
+        long id = peek();
+        removeAt(0);
+        return id;
+    }
+
+    /**
+     * Re-keys a queued element, moving it towards the head or the tail as needed.
+     */
+    public void update(int handle, int priority, long rank) {
+        checkQueued(handle);
+        boolean earlier = before(priority, rank, ids[handle], handle);
+        priorities[handle] = priority;
+        ranks[handle] = rank;
+        if (earlier) {
+            siftUp(positions[handle]);
+        } else {
+            siftDown(positions[handle]);
+        }
+    }
+
+    public boolean remove(int handle) {
+        if (!contains(handle)) {
+            return false;
+        }
+        removeAt(positions[handle]);
+        return true;
+    }
+
+    public boolean contains(int handle) {
+        return handle >= 0 && handle < handleCount && positions[handle] >= 0;
+    }
+
+    public long id(int handle) {
+        checkQueued(handle);
+        return ids[handle];
+    }
+
+    public int priority(int handle) {
+        checkQueued(handle);
+        return priorities[handle];
+    }
+
+    public long rank(int handle) {
+        checkQueued(handle);
+        return ranks[handle];
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+        freeCount = 0;
+        handleCount = 0;
+    }
+
+    private int allocateHandle() {
+        if (freeCount > 0) {
+            return freeHandles[--freeCount];
+        }
+        if (handleCount == positions.length) {
+            int capacity = positions.length + (positions.length >> 1);
+            heap = Arrays.copyOf(heap, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+            ranks = Arrays.copyOf(ranks, capacity);
+            freeHandles = Arrays.copyOf(freeHandles, capacity);
+        }
+        return handleCount++;
+    }
+
+    private void checkQueued(int handle) {
+        if (!contains(handle)) {
+            throw new NoSuchElementException("Handle is not queued in this LongPriorityQueue: " + handle);
+        }
+    }
+
+    private void removeAt(int index) {
+        int removed = heap[index];
+        size--;
+        if (index != size) {
+            int moved = heap[size];
+            place(moved, index);
+            // The moved element may belong above or below its new slot.
+            siftDown(index);
+            siftUp(positions[moved]);
+        }
+        positions[removed] = -1;
+        freeHandles[freeCount++] = removed;
+    }
+
+    private void siftUp(int index) {
+        int moving = heap[index];
+        int current = index;
+        while (current > 0) {
+            int parent = (current - 1) >>> 1;
+            if (!before(moving, heap[parent])) {
+                break;
+            }
+            place(heap[parent], current);
+            current = parent;
+        }
+        place(moving, current);
+    }
+
+    private void siftDown(int index) {
+        int moving = heap[index];
+        int current = index;
+        int half = size >>> 1;
+        while (current < half) {
+            int left = (current << 1) + 1;
+            int right = left + 1;
+            int first = left;
+            if (right < size && before(heap[right], heap[left])) {
+                first = right;
+            }
+            if (!before(heap[first], moving)) {
+                break;
+            }
+            place(heap[first], current);
+            current = first;
+        }
+        place(moving, current);
+    }
+
+    private boolean before(int first, int second) {
+        return before(priorities[first], ranks[first], ids[first], second);
+    }
+
+    private boolean before(int priority, long rank, long id, int other) {
+        if (priority != priorities[other]) {
+            return priority > priorities[other];
+        }
+        if (rank != ranks[other]) {
+            return rank < ranks[other];
+        }
+        return id < ids[other];
+    }
+
+    private void place(int handle, int index) {
+        heap[index] = handle;
+        positions[handle] = index;
+    }
+}
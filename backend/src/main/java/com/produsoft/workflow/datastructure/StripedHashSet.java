@@ -0,0 +1,95 @@
+package com.produsoft.workflow.datastructure;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread-safe {@link HashSet}: elements are spread over a fixed number of stripes, each an ordinary
+ * {@code HashSet} guarded by its own lock, so threads touching different stripes never contend. Every
+ * operation on a single element is atomic; {@link #size()} is exact only while no writer is active.
+ */
+public class StripedHashSet<T> {
+    private static final int DEFAULT_STRIPES = 16;
+
+    private final HashSet<T>[] stripes;
+    private final int shift;
+    private final AtomicInteger size = new AtomicInteger();
+
+    public StripedHashSet() {
+        this(DEFAULT_STRIPES);
+    }
+
+    @SuppressWarnings("unchecked")
+    public StripedHashSet(int stripeCount) {
+        if (stripeCount < 1) {
+            throw new IllegalArgumentException("Stripe count must be positive");
+        }
+        int count = Integer.highestOneBit(stripeCount);
+        if (count != stripeCount) {
+            count <<= 1;
+        }
+        this.stripes = (HashSet<T>[]) new HashSet[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new HashSet<>();
+        }
+        this.shift = 32 - Integer.numberOfTrailingZeros(count);
+    }
+
+    public boolean add(T value) {
+        Objects.requireNonNull(value, "StripedHashSet does not support null values");
+        HashSet<T> stripe = stripeFor(value);
+        synchronized (stripe) {
+            if (!stripe.add(value)) {
+                return false;
+            }
+            size.incrementAndGet();
+            return true;
+        }
+    }
+
+    public boolean contains(T value) {
+        if (value == null) {
+            return false;
+        }
+        HashSet<T> stripe = stripeFor(value);
+        synchronized (stripe) {
+            return stripe.contains(value);
+        }
+    }
+
+    public boolean remove(T value) {
+        if (value == null) {
+            return false;
+        }
+        HashSet<T> stripe = stripeFor(value);
+        synchronized (stripe) {
+            if (!stripe.remove(value)) {
+                return false;
+            }
+            size.decrementAndGet();
+            return true;
+        }
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public void clear() {
+        for (HashSet<T> stripe : stripes) {
+            synchronized (stripe) {
+                size.addAndGet(-stripe.size());
+                stripe.clear();
+            }
+        }
+    }
+
+    private HashSet<T> stripeFor(T value) {
+        // Pick the stripe from the high bits: each stripe's HashSet buckets by the low bits.
+        return shift == 32 ? stripes[0] : stripes[(value.hashCode() * 0x9E3779B9) >>> shift];
+    }
+}
@@ -33,6 +33,18 @@ public class AiConversation {
     @Column(length = 255)
     private String title;
 
+    /**
+     * Rolling summary of the messages up to and including {@link #summarizedThroughId}; only the messages
+     * after that checkpoint are read back when building a prompt.
+     */
+    @Column(columnDefinition = "TEXT")
+    private String summary;
+
+    private Long summarizedThroughId;
+
+    @Column(nullable = false)
+    private int summarizedCount;
+
     @OneToMany(mappedBy = "conversation", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<AiMessage> messages = new ArrayList<>();
 
@@ -92,6 +104,30 @@ public class AiConversation {
         this.title = title;
     }
 
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public Long getSummarizedThroughId() {
+        return summarizedThroughId;
+    }
+
+    public void setSummarizedThroughId(Long summarizedThroughId) {
+        this.summarizedThroughId = summarizedThroughId;
+    }
+
+    public int getSummarizedCount() {
+        return summarizedCount;
+    }
+
+    public void setSummarizedCount(int summarizedCount) {
+        this.summarizedCount = summarizedCount;
+    }
+
     public List<AiMessage> getMessages() {
         return messages;
     }
@@ -2,42 +2,54 @@ package com.produsoft.workflow.dto;
 
 import com.produsoft.workflow.domain.AiConversation;
 import com.produsoft.workflow.domain.AiMessage;
+import com.produsoft.workflow.repository.AiConversationSummaryRow;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
 import org.springframework.stereotype.Component;
 
 @Component
 public class AiConversationMapper {
 
-    public AiConversationSummaryResponse toSummary(AiConversation conversation, Optional<AiMessage> lastMessage) {
-        String preview = lastMessage.map(AiMessage::getContent)
-            .map(content -> content.length() > 120 ? content.substring(0, 117) + "..." : content)
-            .orElse(null);
+    public AiConversationSummaryResponse toSummary(AiConversationSummaryRow row) {
         return new AiConversationSummaryResponse(
+            row.id(),
+            row.title(),
+            row.createdAt(),
+            row.updatedAt(),
+            row.lastMessagePreview()
+        );
+    }
+
+    public AiConversationResponse toResponse(AiConversation conversation, List<AiMessage> messages, Long nextBefore) {
+        return new AiConversationResponse(
             conversation.getId(),
             conversation.getTitle(),
             conversation.getCreatedAt(),
             conversation.getUpdatedAt(),
-            preview
+            messages.stream()
+                .sorted(Comparator.comparing(AiMessage::getId))
+                .map(this::toMessage)
+                .toList(),
+            nextBefore
         );
     }
 
-    public AiConversationResponse toResponse(AiConversation conversation) {
-        List<AiMessageResponse> messages = conversation.getMessages().stream()
-            .sorted(Comparator.comparing(AiMessage::getCreatedAt))
-            .map(message -> new AiMessageResponse(
-                message.getId(),
-                message.getRole(),
-                message.getContent(),
-                message.getCreatedAt()))
-            .toList();
+    public AiConversationResponse toResponse(AiConversation conversation, AiMessagePageResponse latestMessages) {
         return new AiConversationResponse(
             conversation.getId(),
             conversation.getTitle(),
             conversation.getCreatedAt(),
             conversation.getUpdatedAt(),
-            messages
+            latestMessages.messages(),
+            latestMessages.nextBefore()
         );
     }
+
+    public AiMessageResponse toMessage(AiMessage message) {
+        return new AiMessageResponse(
+            message.getId(),
+            message.getRole(),
+            message.getContent(),
+            message.getCreatedAt());
+    }
 }
@@ -0,0 +1,9 @@
+package com.produsoft.workflow.dto;
+
+import java.util.List;
+
+public record AiConversationPageResponse(
+    List<AiConversationSummaryResponse> items,
+    String nextCursor,
+    boolean hasMore
+) {}
@@ -3,11 +3,17 @@ package com.produsoft.workflow.dto;
 import java.time.Instant;
 import java.util.List;
 
+/**
+ * A conversation with a window of its messages, oldest first. Reads carry the newest messages and, when older
+ * ones exist, {@code nextBefore} to page back through {@code GET .../messages?before=}; replies to a new message
+ * carry only the question and answer just added.
+ */
 public record AiConversationResponse(
     Long id,
     String title,
     Instant createdAt,
     Instant updatedAt,
-    List<AiMessageResponse> messages
+    List<AiMessageResponse> messages,
+    Long nextBefore
 ) {
 }
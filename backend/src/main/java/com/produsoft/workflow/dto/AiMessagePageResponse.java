@@ -0,0 +1,13 @@
+package com.produsoft.workflow.dto;
+
+import java.util.List;
+
+/**
+ * One page of a conversation's messages in chronological order. {@code nextBefore} is the id to pass as
+ * {@code before} for the preceding page, or {@code null} once the first message has been reached.
+ */
+public record AiMessagePageResponse(
+    List<AiMessageResponse> messages,
+    Long nextBefore
+) {
+}
@@ -0,0 +1,42 @@
+package com.produsoft.workflow.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BatchStageActionRequest(
+    @NotEmpty(message = "At least one action is required")
+    @Size(max = 200, message = "A batch may contain at most 200 actions")
+    List<@Valid @NotNull Action> actions
+) {
+
+    public enum ActionType {
+        CLAIM,
+        CHECKLIST,
+        COMPLETE,
+        FLAG
+    }
+
+    /**
+     * One stage action. Which optional fields are read depends on the type: {@code taskId} and
+     * {@code completed} for CHECKLIST, {@code serviceTimeMinutes} and {@code notes} for COMPLETE,
+     * {@code exceptionReason} and {@code notes} for FLAG.
+     */
+    public record Action(
+        @NotNull(message = "Action type is required")
+        ActionType type,
+        @NotNull(message = "Order id is required")
+        Long orderId,
+        @NotBlank(message = "Stage is required")
+        String stage,
+        String assignee,
+        String taskId,
+        Boolean completed,
+        Long serviceTimeMinutes,
+        String notes,
+        String exceptionReason
+    ) {}
+}
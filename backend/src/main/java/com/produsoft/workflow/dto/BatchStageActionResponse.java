@@ -0,0 +1,19 @@
+package com.produsoft.workflow.dto;
+
+import java.util.List;
+
+public record BatchStageActionResponse(
+    int succeeded,
+    int failed,
+    List<Result> results
+) {
+
+    public record Result(
+        int index,
+        Long orderId,
+        String stage,
+        boolean success,
+        String error,
+        OrderStageStatusResponse status
+    ) {}
+}
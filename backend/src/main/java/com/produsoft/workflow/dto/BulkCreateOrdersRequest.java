@@ -0,0 +1,13 @@
+package com.produsoft.workflow.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BulkCreateOrdersRequest(
+    @NotEmpty(message = "At least one order is required")
+    @Size(max = 1000, message = "A bulk request may contain at most 1000 orders; use /api/orders/import for more")
+    List<@Valid @NotNull CreateOrderRequest> orders
+) {}
@@ -0,0 +1,10 @@
+package com.produsoft.workflow.dto;
+
+import java.util.List;
+
+public record BulkCreateOrdersResponse(
+    int requested,
+    int created,
+    List<String> skippedOrderNumbers,
+    long elapsedMillis
+) {}
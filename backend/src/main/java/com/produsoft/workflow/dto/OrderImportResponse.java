@@ -0,0 +1,20 @@
+package com.produsoft.workflow.dto;
+
+import java.util.List;
+
+public record OrderImportResponse(
+    long linesRead,
+    long created,
+    long duplicates,
+    long rejected,
+    List<Reject> rejects,
+    boolean rejectsTruncated,
+    long elapsedMillis
+) {
+
+    public record Reject(
+        long line,
+        String orderNumber,
+        String reason
+    ) {}
+}
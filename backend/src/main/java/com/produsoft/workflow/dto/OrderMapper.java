@@ -3,7 +3,10 @@ package com.produsoft.workflow.dto;
 import com.produsoft.workflow.checklist.StageChecklistService;
 import com.produsoft.workflow.domain.Order;
 import com.produsoft.workflow.domain.OrderStageStatus;
+import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.repository.OrderStageRow;
 import java.util.List;
+import java.util.Map;
 import java.util.Comparator;
 import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
@@ -35,6 +38,48 @@ public class OrderMapper {
         );
     }
 
+    /**
+     * Maps one order from its stage rows, which must all belong to that order.
+     */
+    public OrderResponse toOrderResponse(List<OrderStageRow> rows) {
+        OrderStageRow order = rows.get(0);
+        List<OrderStageStatusResponse> stages = rows.stream()
+            .sorted(Comparator.comparingInt(row -> row.stage().ordinal()))
+            .map(this::toStageResponse)
+            .collect(Collectors.toList());
+        return new OrderResponse(
+            order.orderId(),
+            order.orderNumber(),
+            order.priority(),
+            order.currentStage(),
+            order.overallState(),
+            order.createdAt(),
+            order.updatedAt(),
+            order.notes(),
+            stages
+        );
+    }
+
+    public OrderStageStatusResponse toStageResponse(OrderStageRow row) {
+        Map<String, Boolean> checklistState = row.checklistState();
+        return new OrderStageStatusResponse(
+            row.stageId(),
+            row.stage(),
+            row.state(),
+            row.assignee(),
+            row.claimedAt(),
+            row.startedAt(),
+            row.completedAt(),
+            row.serviceTimeMinutes(),
+            row.stageNotes(),
+            row.exceptionReason(),
+            row.supervisorNotes(),
+            row.approvedBy(),
+            row.stageUpdatedAt(),
+            toChecklist(row.stage(), checklistState == null || checklistState.isEmpty() ? null : checklistState)
+        );
+    }
+
     public OrderStageStatusResponse toStageResponse(OrderStageStatus status) {
         return new OrderStageStatusResponse(
             status.getId(),
@@ -69,12 +114,36 @@ public class OrderMapper {
             status.getUpdatedAt(),
             status.getExceptionReason(),
             status.getNotes(),
-            toChecklist(status)
+            toChecklist(status),
+            order.getCreatedAt()
+        );
+    }
+
+    public WorkQueueItemResponse toQueueItem(OrderResponse order, OrderStageStatusResponse stage) {
+        return new WorkQueueItemResponse(
+            order.id(),
+            order.orderNumber(),
+            order.priority(),
+            stage.stage(),
+            stage.state(),
+            order.currentStage(),
+            order.overallState(),
+            stage.assignee(),
+            stage.claimedAt(),
+            stage.updatedAt(),
+            stage.exceptionReason(),
+            stage.notes(),
+            stage.checklist(),
+            order.createdAt()
         );
     }
 
     private List<ChecklistItemResponse> toChecklist(OrderStageStatus status) {
-        return stageChecklistService.buildChecklist(status.getStage(), status.hasChecklistState() ? status.getChecklistState() : null)
+        return toChecklist(status.getStage(), status.hasChecklistState() ? status.getChecklistState() : null);
+    }
+
+    private List<ChecklistItemResponse> toChecklist(StageType stage, Map<String, Boolean> checklistState) {
+        return stageChecklistService.buildChecklist(stage, checklistState)
             .stream()
             .map(item -> new ChecklistItemResponse(item.id(), item.label(), item.required(), item.completed()))
             .collect(Collectors.toList());
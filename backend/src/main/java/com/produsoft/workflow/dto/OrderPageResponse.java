@@ -0,0 +1,9 @@
+package com.produsoft.workflow.dto;
+
+import java.util.List;
+
+public record OrderPageResponse(
+    List<OrderResponse> items,
+    String nextCursor,
+    boolean hasMore
+) {}
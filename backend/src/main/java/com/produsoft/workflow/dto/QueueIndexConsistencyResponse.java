@@ -0,0 +1,25 @@
+package com.produsoft.workflow.dto;
+
+import com.produsoft.workflow.domain.StageType;
+import java.util.List;
+
+public record QueueIndexConsistencyResponse(
+    boolean ready,
+    boolean consistent,
+    List<StageConsistency> stages
+) {
+
+    public record StageConsistency(
+        StageType stage,
+        int indexedEntries,
+        int databaseEntries,
+        List<Long> missingOrderIds,
+        List<Long> staleOrderIds,
+        List<Long> unexpectedOrderIds
+    ) {
+
+        public boolean consistent() {
+            return missingOrderIds.isEmpty() && staleOrderIds.isEmpty() && unexpectedOrderIds.isEmpty();
+        }
+    }
+}
@@ -4,6 +4,11 @@ import jakarta.validation.constraints.NotBlank;
 
 public record SendMessageRequest(
     @NotBlank(message = "content must not be blank")
-    String content
+    String content,
+    Boolean noCache
 ) {
+
+    public boolean cacheAllowed() {
+        return !Boolean.TRUE.equals(noCache);
+    }
 }
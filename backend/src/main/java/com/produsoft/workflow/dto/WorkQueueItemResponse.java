@@ -18,5 +18,6 @@ public record WorkQueueItemResponse(
     Instant updatedAt,
     String exceptionReason,
     String notes,
-    List<ChecklistItemResponse> checklist
+    List<ChecklistItemResponse> checklist,
+    Instant orderCreatedAt
 ) {}
@@ -0,0 +1,23 @@
+package com.produsoft.workflow.dto;
+
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.event.WorkflowAction;
+import java.time.Instant;
+import java.util.List;
+
+public record WorkflowEventResponse(
+    long id,
+    WorkflowAction action,
+    Instant occurredAt,
+    StageState previousOverallState,
+    List<StageChange> stageChanges,
+    OrderResponse order
+) {
+
+    public record StageChange(
+        StageType stage,
+        StageState previousState,
+        StageState state
+    ) {}
+}
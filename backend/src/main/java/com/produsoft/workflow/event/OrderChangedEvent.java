@@ -0,0 +1,35 @@
+package com.produsoft.workflow.event;
+
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.dto.OrderResponse;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Published by {@code OrderWorkflowService} whenever an order or one of its stages changes.
+ * Carries the state of the order after the change plus the states it had before, so listeners
+ * can maintain derived views without going back to the database. Listeners are expected to
+ * react after the surrounding transaction commits.
+ */
+public record OrderChangedEvent(
+    WorkflowAction action,
+    OrderResponse order,
+    Map<StageType, StageState> previousStageStates,
+    StageState previousOverallState
+) {
+
+    public OrderChangedEvent {
+        previousStageStates = previousStageStates == null || previousStageStates.isEmpty()
+            ? Map.of()
+            : new EnumMap<>(previousStageStates);
+    }
+
+    public Long orderId() {
+        return order.id();
+    }
+
+    public StageState previousState(StageType stage) {
+        return previousStageStates.get(stage);
+    }
+}
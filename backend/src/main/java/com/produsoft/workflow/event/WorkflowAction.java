@@ -0,0 +1,12 @@
+package com.produsoft.workflow.event;
+
+public enum WorkflowAction {
+    CREATED,
+    CLAIMED,
+    CHECKLIST_UPDATED,
+    COMPLETED,
+    EXCEPTION_FLAGGED,
+    SKIP_APPROVED,
+    REWORK_REQUESTED,
+    REPRIORITIZED
+}
@@ -0,0 +1,8 @@
+package com.produsoft.workflow.exception;
+
+public class AiCapacityException extends RuntimeException {
+
+    public AiCapacityException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.produsoft.workflow.exception;
+
+public class StageConflictException extends RuntimeException {
+    public StageConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,43 @@
+package com.produsoft.workflow.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Keyset position in a user's conversation listing, which is sorted by last update and then id, both
+ * descending.
+ */
+public record AiConversationCursor(Instant updatedAt, Long id) {
+
+    private static final String VERSION = "v1";
+
+    public AiConversationCursor {
+        Objects.requireNonNull(updatedAt, "updatedAt is required");
+        Objects.requireNonNull(id, "id is required");
+    }
+
+    public static AiConversationCursor of(AiConversationSummaryRow row) {
+        return new AiConversationCursor(row.updatedAt(), row.id());
+    }
+
+    public String encode() {
+        String raw = String.join("|", VERSION, updatedAt.toString(), id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static AiConversationCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unsupported cursor format");
+            }
+            return new AiConversationCursor(Instant.parse(parts[1]), Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, ex);
+        }
+    }
+}
@@ -1,19 +1,45 @@
 package com.produsoft.workflow.repository;
 
 import com.produsoft.workflow.domain.AiConversation;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
-import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AiConversationRepository extends JpaRepository<AiConversation, Long> {
 
-    List<AiConversation> findByCreatedByOrderByUpdatedAtDesc(String createdBy);
+    /**
+     * Conversation with its latest message, found by the highest message id through the
+     * (conversation_id, id) index; the preview is cut to 120 characters in the database.
+     */
+    String SUMMARY_SELECT = "SELECT new com.produsoft.workflow.repository.AiConversationSummaryRow(" +
+        "c.id, c.title, c.createdAt, c.updatedAt, " +
+        "CASE WHEN LENGTH(m.content) > 120 THEN CONCAT(SUBSTRING(m.content, 1, 117), '...') ELSE m.content END) " +
+        "FROM AiConversation c LEFT JOIN AiMessage m ON m.conversation = c " +
+        "AND m.id = (SELECT MAX(latest.id) FROM AiMessage latest WHERE latest.conversation = c) " +
+        "WHERE c.createdBy = :createdBy ";
 
-    @EntityGraph(attributePaths = "messages")
-    Optional<AiConversation> findWithMessagesByIdAndCreatedBy(Long id, String createdBy);
+    String SUMMARY_ORDER = "ORDER BY c.updatedAt DESC, c.id DESC";
+
+    @Query(SUMMARY_SELECT + SUMMARY_ORDER)
+    List<AiConversationSummaryRow> findSummaries(@Param("createdBy") String createdBy, Limit limit);
+
+    @Query(SUMMARY_SELECT +
+        "AND (c.updatedAt < :updatedAt OR (c.updatedAt = :updatedAt AND c.id < :id)) " + SUMMARY_ORDER)
+    List<AiConversationSummaryRow> findSummariesAfter(@Param("createdBy") String createdBy,
+                                                      @Param("updatedAt") Instant updatedAt,
+                                                      @Param("id") Long id,
+                                                      Limit limit);
 
     Optional<AiConversation> findByIdAndCreatedBy(Long id, String createdBy);
+
+    @Modifying
+    @Query("UPDATE AiConversation c SET c.updatedAt = :updatedAt WHERE c.id = :id")
+    int touch(@Param("id") Long id, @Param("updatedAt") Instant updatedAt);
 }
@@ -0,0 +1,14 @@
+package com.produsoft.workflow.repository;
+
+import java.time.Instant;
+
+/**
+ * One conversation in the listing with a preview of its latest message, already truncated by the query.
+ */
+public record AiConversationSummaryRow(
+    Long id,
+    String title,
+    Instant createdAt,
+    Instant updatedAt,
+    String lastMessagePreview
+) {}
@@ -1,11 +1,39 @@
 package com.produsoft.workflow.repository;
 
 import com.produsoft.workflow.domain.AiMessage;
-import java.util.Optional;
+import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AiMessageRepository extends JpaRepository<AiMessage, Long> {
-    Optional<AiMessage> findTopByConversationIdOrderByCreatedAtDesc(Long conversationId);
+    /**
+     * Newest messages first; pass the id of the oldest message already seen to page further back.
+     */
+    List<AiMessage> findByConversationIdOrderByIdDesc(Long conversationId, Limit limit);
+
+    List<AiMessage> findByConversationIdAndIdLessThanOrderByIdDesc(Long conversationId, Long beforeId, Limit limit);
+
+    /**
+     * Messages after a summary checkpoint, newest first.
+     */
+    List<AiMessage> findByConversationIdAndIdGreaterThanOrderByIdDesc(Long conversationId, Long afterId, Limit limit);
+
+    List<AiMessage> findByConversationIdAndIdGreaterThanOrderByIdAsc(Long conversationId, Long afterId, Limit limit);
+
+    long countByConversationIdAndIdGreaterThan(Long conversationId, Long afterId);
+
+    boolean existsByConversationIdAndIdLessThan(Long conversationId, Long beforeId);
+
+    @Modifying
+    @Query("UPDATE AiMessage m SET m.content = :content WHERE m.id = :id")
+    int updateContent(@Param("id") Long id, @Param("content") String content);
+
+    @Modifying
+    @Query("DELETE FROM AiMessage m WHERE m.conversation.id = :conversationId")
+    int deleteByConversationId(@Param("conversationId") Long conversationId);
 }
@@ -0,0 +1,50 @@
+package com.produsoft.workflow.repository;
+
+import com.produsoft.workflow.domain.Order;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Keyset position in the order listing. The listing is sorted by priority (descending, nulls last),
+ * then creation time and id (ascending), so the last row of a page fully identifies where the next
+ * page starts regardless of rows inserted in the meantime.
+ */
+public record OrderCursor(Integer priority, Instant createdAt, Long id) {
+
+    private static final String VERSION = "v1";
+
+    public OrderCursor {
+        Objects.requireNonNull(createdAt, "createdAt is required");
+        Objects.requireNonNull(id, "id is required");
+    }
+
+    public static OrderCursor of(Order order) {
+        return new OrderCursor(order.getPriority(), order.getCreatedAt(), order.getId());
+    }
+
+    public String encode() {
+        String raw = String.join("|",
+            VERSION,
+            priority == null ? "" : priority.toString(),
+            createdAt.toString(),
+            id.toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 4 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Unsupported cursor format");
+            }
+            Integer priority = parts[1].isEmpty() ? null : Integer.valueOf(parts[1]);
+            return new OrderCursor(priority, Instant.parse(parts[2]), Long.valueOf(parts[3]));
+        } catch (IllegalArgumentException | DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, ex);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.produsoft.workflow.repository;
+
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import java.time.Instant;
+
+/**
+ * One order/stage pair as read by the export cursor. Order columns repeat on each of an order's stage rows.
+ */
+public record OrderExportRow(
+    Long orderId,
+    String orderNumber,
+    Integer priority,
+    StageType currentStage,
+    StageState overallState,
+    Instant createdAt,
+    Instant updatedAt,
+    String notes,
+    StageType stage,
+    StageState state,
+    String assignee,
+    Instant claimedAt,
+    Instant startedAt,
+    Instant completedAt,
+    Long serviceTimeMinutes,
+    String stageNotes,
+    String exceptionReason,
+    String supervisorNotes,
+    String approvedBy,
+    Instant stageUpdatedAt
+) {}
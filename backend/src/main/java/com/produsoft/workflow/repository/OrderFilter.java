@@ -0,0 +1,25 @@
+package com.produsoft.workflow.repository;
+
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import java.time.Instant;
+import java.util.List;
+
+public record OrderFilter(
+    List<StageState> overallStates,
+    List<StageType> currentStages,
+    Integer minPriority,
+    Integer maxPriority,
+    Instant updatedFrom,
+    Instant updatedTo
+) {
+
+    public OrderFilter {
+        overallStates = overallStates == null ? List.of() : List.copyOf(overallStates);
+        currentStages = currentStages == null ? List.of() : List.copyOf(currentStages);
+    }
+
+    public static OrderFilter none() {
+        return new OrderFilter(List.of(), List.of(), null, null, null, null);
+    }
+}
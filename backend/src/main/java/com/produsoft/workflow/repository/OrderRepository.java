@@ -1,11 +1,76 @@
 package com.produsoft.workflow.repository;
 
 import com.produsoft.workflow.domain.Order;
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import jakarta.persistence.QueryHint;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderRepositoryCustom {
     Optional<Order> findByOrderNumber(String orderNumber);
+
+    @Query("SELECT o.orderNumber FROM Order o WHERE o.orderNumber IN :orderNumbers")
+    List<String> findExistingOrderNumbers(@Param("orderNumbers") Collection<String> orderNumbers);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.stages WHERE o.id IN :ids")
+    List<Order> findAllWithStagesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.stages WHERE o.orderNumber IN :orderNumbers")
+    List<Order> findAllWithStagesByOrderNumberIn(@Param("orderNumbers") Collection<String> orderNumbers);
+
+    /**
+     * Ids of the orders the AI assistant sees first: highest priority, then newest. Kept as a separate id
+     * query so the limit is applied by the database rather than after fetching the stage rows.
+     */
+    @Query("SELECT o.id FROM Order o ORDER BY COALESCE(o.priority, 0) DESC, o.createdAt DESC NULLS LAST, o.id DESC")
+    List<Long> findContextOrderIds(Limit limit);
+
+    /**
+     * Forward-only read of every order and stage, ordered so each order's stages arrive together. Must be
+     * consumed and closed inside a transaction; rows are projections, so nothing accumulates in the
+     * persistence context.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.produsoft.workflow.repository.OrderExportRow(" +
+           "o.id, o.orderNumber, o.priority, o.currentStage, o.overallState, o.createdAt, o.updatedAt, o.notes, " +
+           "oss.stage, oss.state, oss.assignee, oss.claimedAt, oss.startedAt, oss.completedAt, oss.serviceTimeMinutes, " +
+           "oss.notes, oss.exceptionReason, oss.supervisorNotes, oss.approvedBy, oss.updatedAt) " +
+           "FROM OrderStageStatus oss JOIN oss.order o ORDER BY o.id, oss.id")
+    Stream<OrderExportRow> streamExportRows();
+
+    /**
+     * Moves the order onto a just-claimed stage, but only while it is still in the state and version the claim
+     * was decided on. Returns 0 when the order changed in between.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.currentStage = :stage, " +
+           "o.overallState = com.produsoft.workflow.domain.StageState.IN_PROGRESS, " +
+           "o.updatedAt = :now, o.version = o.version + 1 " +
+           "WHERE o.id = :orderId AND o.overallState = :observedState AND o.version = :observedVersion")
+    int markStageClaimed(@Param("orderId") Long orderId,
+                         @Param("stage") StageType stage,
+                         @Param("observedState") StageState observedState,
+                         @Param("observedVersion") Long observedVersion,
+                         @Param("now") Instant now);
+
+    @Query("SELECT new com.produsoft.workflow.repository.OverallStateCount(o.overallState, COUNT(o)) " +
+           "FROM Order o GROUP BY o.overallState")
+    List<OverallStateCount> countByOverallState();
 }
@@ -0,0 +1,14 @@
+package com.produsoft.workflow.repository;
+
+import com.produsoft.workflow.domain.Order;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface OrderRepositoryCustom {
+
+    /**
+     * Returns up to {@code limit} orders matching the specification in listing order
+     * (priority descending with nulls last, then creation time and id ascending).
+     */
+    List<Order> findListingPage(Specification<Order> specification, int limit);
+}
@@ -0,0 +1,62 @@
+package com.produsoft.workflow.repository;
+
+import com.produsoft.workflow.domain.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.jpa.domain.Specification;
+
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    public static Specification<Order> matching(OrderFilter filter) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (!filter.overallStates().isEmpty()) {
+                predicates.add(root.get("overallState").in(filter.overallStates()));
+            }
+            if (!filter.currentStages().isEmpty()) {
+                predicates.add(root.get("currentStage").in(filter.currentStages()));
+            }
+            if (filter.minPriority() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("priority"), filter.minPriority()));
+            }
+            if (filter.maxPriority() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("priority"), filter.maxPriority()));
+            }
+            if (filter.updatedFrom() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("updatedAt"), filter.updatedFrom()));
+            }
+            if (filter.updatedTo() != null) {
+                predicates.add(cb.lessThan(root.get("updatedAt"), filter.updatedTo()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    /**
+     * Keyset predicate for rows strictly after the cursor in listing order
+     * (see {@link OrderRepositoryCustom#findListingPage}).
+     */
+    public static Specification<Order> after(OrderCursor cursor) {
+        return (root, query, cb) -> {
+            Path<Integer> priority = root.get("priority");
+            Path<Instant> createdAt = root.get("createdAt");
+            Path<Long> id = root.get("id");
+            Predicate sameTieBreak = cb.or(
+                cb.greaterThan(createdAt, cursor.createdAt()),
+                cb.and(cb.equal(createdAt, cursor.createdAt()), cb.greaterThan(id, cursor.id())));
+            if (cursor.priority() == null) {
+                return cb.and(cb.isNull(priority), sameTieBreak);
+            }
+            return cb.or(
+                cb.lessThan(priority, cursor.priority()),
+                cb.isNull(priority),
+                cb.and(cb.equal(priority, cursor.priority()), sameTieBreak));
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.produsoft.workflow.repository;
+
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * One stage of an order, with the order's columns repeated on each row, read as a projection so a claim can be
+ * decided and its change event built without loading the order aggregate.
+ */
+public record OrderStageRow(
+    Long orderId,
+    String orderNumber,
+    Integer priority,
+    StageType currentStage,
+    StageState overallState,
+    Instant createdAt,
+    Instant updatedAt,
+    String notes,
+    Long orderVersion,
+    Long stageId,
+    StageType stage,
+    StageState state,
+    String assignee,
+    Instant claimedAt,
+    Instant startedAt,
+    Instant completedAt,
+    Long serviceTimeMinutes,
+    String stageNotes,
+    String exceptionReason,
+    String supervisorNotes,
+    String approvedBy,
+    Instant stageUpdatedAt,
+    Map<String, Boolean> checklistState
+) {
+
+    /**
+     * This row as it reads after {@code claimedStage} was claimed: the order moves to that stage, in progress,
+     * and the claimed stage itself is started by {@code assignee} with a fresh checklist.
+     */
+    public OrderStageRow claimed(StageType claimedStage, String assignee, Map<String, Boolean> checklist, Instant now) {
+        boolean target = stage == claimedStage;
+        return new OrderStageRow(
+            orderId, orderNumber, priority, claimedStage, StageState.IN_PROGRESS, createdAt, now, notes,
+            orderVersion + 1,
+            stageId, stage,
+            target ? StageState.IN_PROGRESS : state,
+            target ? assignee : this.assignee,
+            target ? now : claimedAt,
+            target ? now : startedAt,
+            completedAt, serviceTimeMinutes, stageNotes, exceptionReason, supervisorNotes, approvedBy,
+            target ? now : stageUpdatedAt,
+            target ? checklist : checklistState);
+    }
+}
@@ -3,10 +3,13 @@ package com.produsoft.workflow.repository;
 import com.produsoft.workflow.domain.OrderStageStatus;
 import com.produsoft.workflow.domain.StageState;
 import com.produsoft.workflow.domain.StageType;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -23,5 +26,37 @@ public interface OrderStageStatusRepository extends JpaRepository<OrderStageStat
     @Query("SELECT oss FROM OrderStageStatus oss JOIN FETCH oss.order o WHERE o.id = :orderId AND oss.stage = :stage")
     Optional<OrderStageStatus> findByOrderIdAndStage(@Param("orderId") Long orderId, @Param("stage") StageType stage);
 
+    @Query("SELECT new com.produsoft.workflow.repository.QueueEntryView(o.id, oss.stage, oss.state, o.priority) " +
+           "FROM OrderStageStatus oss JOIN oss.order o WHERE oss.state IN :states")
+    List<QueueEntryView> findQueueEntriesByStates(@Param("states") Collection<StageState> states);
+
+    @Query("SELECT new com.produsoft.workflow.repository.StageStateCount(oss.stage, oss.state, COUNT(oss)) " +
+           "FROM OrderStageStatus oss GROUP BY oss.stage, oss.state")
+    List<StageStateCount> countByStageAndState();
+
     List<OrderStageStatus> findByOrderId(Long orderId);
+
+    @Query("SELECT new com.produsoft.workflow.repository.OrderStageRow(" +
+           "o.id, o.orderNumber, o.priority, o.currentStage, o.overallState, o.createdAt, o.updatedAt, o.notes, o.version, " +
+           "oss.id, oss.stage, oss.state, oss.assignee, oss.claimedAt, oss.startedAt, oss.completedAt, " +
+           "oss.serviceTimeMinutes, oss.notes, oss.exceptionReason, oss.supervisorNotes, oss.approvedBy, oss.updatedAt, " +
+           "oss.checklistState) " +
+           "FROM OrderStageStatus oss JOIN oss.order o WHERE o.id = :orderId")
+    List<OrderStageRow> findStageRowsByOrderId(@Param("orderId") Long orderId);
+
+    /**
+     * Compare-and-set claim: only moves the stage to IN_PROGRESS while it is still in the state the
+     * caller observed. Returns the number of rows updated, so 0 means another claim won the race.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OrderStageStatus oss SET oss.state = com.produsoft.workflow.domain.StageState.IN_PROGRESS, " +
+           "oss.assignee = :assignee, oss.claimedAt = :now, oss.startedAt = :now, oss.updatedAt = :now, " +
+           "oss.checklistState = :checklistState, oss.version = oss.version + 1 " +
+           "WHERE oss.order.id = :orderId AND oss.stage = :stage AND oss.state = :observed")
+    int claimIfInState(@Param("orderId") Long orderId,
+                       @Param("stage") StageType stage,
+                       @Param("observed") StageState observed,
+                       @Param("assignee") String assignee,
+                       @Param("checklistState") Map<String, Boolean> checklistState,
+                       @Param("now") Instant now);
 }
@@ -0,0 +1,8 @@
+package com.produsoft.workflow.repository;
+
+import com.produsoft.workflow.domain.StageState;
+
+public record OverallStateCount(
+    StageState state,
+    Long total
+) {}
@@ -0,0 +1,11 @@
+package com.produsoft.workflow.repository;
+
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+
+public record QueueEntryView(
+    Long orderId,
+    StageType stage,
+    StageState state,
+    Integer priority
+) {}
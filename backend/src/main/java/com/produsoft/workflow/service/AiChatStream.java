@@ -0,0 +1,230 @@
+package com.produsoft.workflow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.produsoft.workflow.exception.AiClientException;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.springframework.util.StringUtils;
+
+/**
+ * One streamed Ollama chat response. The HTTP client pushes NDJSON lines into {@link #onNext} on its own
+ * threads; the caller pulls coalesced token frames with {@link #nextFrame()}. At most {@code window} lines
+ * are requested ahead of what the caller has consumed, so a slow consumer stops the upstream read instead
+ * of buffering the whole generation, and {@link #cancel()} aborts the HTTP exchange.
+ */
+public final class AiChatStream implements Flow.Subscriber<String>, AutoCloseable {
+
+    private static final Delta END = new Delta(null);
+
+    private final ObjectMapper objectMapper;
+    private final int window;
+    private final int frameMaxChars;
+    private final long frameIntervalNanos;
+    private final LinkedBlockingQueue<Delta> deltas = new LinkedBlockingQueue<>();
+    private final StringBuilder reply = new StringBuilder();
+
+    private volatile Flow.Subscription subscription;
+    private volatile CompletableFuture<HttpResponse<String>> exchange;
+    private volatile Throwable failure;
+    private volatile boolean upstreamDone;
+    private volatile boolean cancelled;
+    private boolean finished;
+
+    AiChatStream(ObjectMapper objectMapper, int window, int frameMaxChars, Duration frameInterval) {
+        this.objectMapper = objectMapper;
+        this.window = Math.max(1, window);
+        this.frameMaxChars = Math.max(1, frameMaxChars);
+        this.frameIntervalNanos = frameInterval.toNanos();
+    }
+
+    void attach(CompletableFuture<HttpResponse<String>> exchange) {
+        this.exchange = exchange;
+        exchange.whenComplete((response, error) -> {
+            if (error != null) {
+                fail(error instanceof CompletionException && error.getCause() != null ? error.getCause() : error);
+            } else if (response.statusCode() >= 400) {
+                fail(new AiClientException("Ollama API error: " + response.body()));
+            }
+        });
+        if (cancelled) {
+            exchange.cancel(true);
+        }
+    }
+
+    /**
+     * Returns the next frame of generated text, waiting for the first token and then gathering further
+     * tokens for up to the frame interval or frame size, or {@code null} once the response is complete.
+     */
+    public String nextFrame() {
+        if (finished || cancelled) {
+            throwIfFailed();
+            return null;
+        }
+        try {
+            Delta first = deltas.take();
+            if (first == END || cancelled) {
+                finished = true;
+                throwIfFailed();
+                return null;
+            }
+            StringBuilder frame = new StringBuilder(first.text());
+            int consumed = 1;
+            long deadline = System.nanoTime() + frameIntervalNanos;
+            while (frame.length() < frameMaxChars) {
+                long remaining = deadline - System.nanoTime();
+                Delta next = remaining > 0 ? deltas.poll(remaining, TimeUnit.NANOSECONDS) : deltas.poll();
+                if (next == null) {
+                    break;
+                }
+                if (next == END) {
+                    finished = true;
+                    break;
+                }
+                frame.append(next.text());
+                consumed++;
+            }
+            request(consumed);
+            reply.append(frame);
+            return frame.toString();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            cancel();
+            throw new AiClientException("Interrupted while streaming response from Ollama.", ex);
+        }
+    }
+
+    /**
+     * Text received so far; the full reply once {@link #nextFrame()} has returned {@code null}.
+     */
+    public String reply() {
+        return reply.toString();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        deltas.clear();
+        Flow.Subscription current = subscription;
+        if (current != null) {
+            current.cancel();
+        }
+        CompletableFuture<HttpResponse<String>> pending = exchange;
+        if (pending != null) {
+            pending.cancel(true);
+        }
+        deltas.add(END);
+    }
+
+    @Override
+    public void close() {
+        if (!upstreamDone) {
+            cancel();
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (cancelled) {
+            subscription.cancel();
+            return;
+        }
+        subscription.request(window);
+    }
+
+    @Override
+    public void onNext(String line) {
+        if (upstreamDone || cancelled) {
+            return;
+        }
+        if (line.isBlank()) {
+            request(1);
+            return;
+        }
+        OllamaStreamChunk chunk;
+        try {
+            chunk = objectMapper.readValue(line, OllamaStreamChunk.class);
+        } catch (JsonProcessingException ex) {
+            fail(new AiClientException("Received malformed stream chunk from Ollama.", ex));
+            subscription.cancel();
+            return;
+        }
+        if (StringUtils.hasText(chunk.error())) {
+            fail(new AiClientException("Ollama API error: " + chunk.error()));
+            subscription.cancel();
+            return;
+        }
+        String content = chunk.message() == null ? null : chunk.message().content();
+        if (content != null && !content.isEmpty()) {
+            deltas.add(new Delta(content));
+        } else {
+            // Nothing was queued for the consumer to acknowledge, so ask for the next line here.
+            request(1);
+        }
+        if (Boolean.TRUE.equals(chunk.done())) {
+            upstreamDone = true;
+            deltas.add(END);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        fail(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (!upstreamDone) {
+            upstreamDone = true;
+            deltas.add(END);
+        }
+    }
+
+    private void request(long lines) {
+        Flow.Subscription current = subscription;
+        if (current != null && !cancelled && !upstreamDone) {
+            current.request(lines);
+        }
+    }
+
+    private void fail(Throwable throwable) {
+        if (cancelled || upstreamDone) {
+            return;
+        }
+        failure = throwable;
+        upstreamDone = true;
+        deltas.add(END);
+    }
+
+    private void throwIfFailed() {
+        Throwable error = failure;
+        if (error == null) {
+            return;
+        }
+        if (error instanceof AiClientException aiClientException) {
+            throw aiClientException;
+        }
+        throw new AiClientException("Failed to stream response from Ollama.", error);
+    }
+
+    private record Delta(String text) {
+    }
+
+    private record OllamaStreamChunk(String model, OllamaMessage message, Boolean done, String error) {
+    }
+
+    private record OllamaMessage(String role, String content) {
+    }
+}
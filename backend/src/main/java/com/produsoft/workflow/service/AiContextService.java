@@ -1,20 +1,47 @@
 package com.produsoft.workflow.service;
 
+import com.produsoft.workflow.config.AiContextProperties;
+import com.produsoft.workflow.datastructure.LongHashSet;
+import com.produsoft.workflow.datastructure.LongObjectHashMap;
 import com.produsoft.workflow.domain.Order;
-import com.produsoft.workflow.domain.OrderStageStatus;
 import com.produsoft.workflow.domain.StageState;
 import com.produsoft.workflow.domain.StageType;
 import com.produsoft.workflow.dto.AiChatRequest;
+import com.produsoft.workflow.dto.OrderMapper;
+import com.produsoft.workflow.dto.OrderResponse;
+import com.produsoft.workflow.dto.OrderStageStatusResponse;
+import com.produsoft.workflow.dto.WorkQueueItemResponse;
+import com.produsoft.workflow.event.OrderChangedEvent;
 import com.produsoft.workflow.repository.OrderRepository;
 import java.time.Instant;
 import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+/**
+ * Builds the system message for AI conversations. The top {@value #MAX_ORDERS} orders are held in memory
+ * as pre-rendered summary fragments, patched from {@link OrderChangedEvent}s once they commit, so assembling
+ * the context does not depend on how many orders exist. The snapshot is reloaded from the database only when
+ * an order may have dropped below orders that are not held in memory.
+ *
+ * <p>For each question the held orders, plus any order it names by number, are scored by how much of the
+ * question they touch (order number, stage, assignee, state) and packed most relevant first until the
+ * context token budget is spent.
+ */
 @Service
 public class AiContextService {
 
@@ -23,18 +50,91 @@ public class AiContextService {
         .ofPattern("yyyy-MM-dd HH:mm 'UTC'")
         .withZone(ZoneOffset.UTC);
 
+    private static final List<StageState> ASSIGNED_STATES = List.of(StageState.IN_PROGRESS, StageState.EXCEPTION);
+    private static final Pattern WORD = Pattern.compile("[\\p{L}\\p{N}_@-]+(?:\\.[\\p{L}\\p{N}_@-]+)*");
+    private static final Map<String, Set<StageState>> STATE_WORDS = Map.ofEntries(
+        Map.entry("exception", EnumSet.of(StageState.EXCEPTION)),
+        Map.entry("exceptions", EnumSet.of(StageState.EXCEPTION)),
+        Map.entry("flagged", EnumSet.of(StageState.EXCEPTION)),
+        Map.entry("blocked", EnumSet.of(StageState.EXCEPTION, StageState.BLOCKED)),
+        Map.entry("blocking", EnumSet.of(StageState.EXCEPTION, StageState.BLOCKED)),
+        Map.entry("progress", EnumSet.of(StageState.IN_PROGRESS)),
+        Map.entry("active", EnumSet.of(StageState.IN_PROGRESS)),
+        Map.entry("working", EnumSet.of(StageState.IN_PROGRESS)),
+        Map.entry("pending", EnumSet.of(StageState.PENDING, StageState.REWORK)),
+        Map.entry("waiting", EnumSet.of(StageState.PENDING, StageState.REWORK)),
+        Map.entry("queue", EnumSet.of(StageState.PENDING, StageState.REWORK)),
+        Map.entry("queued", EnumSet.of(StageState.PENDING, StageState.REWORK)),
+        Map.entry("rework", EnumSet.of(StageState.REWORK)),
+        Map.entry("completed", EnumSet.of(StageState.COMPLETED)),
+        Map.entry("finished", EnumSet.of(StageState.COMPLETED)),
+        Map.entry("done", EnumSet.of(StageState.COMPLETED)),
+        Map.entry("skipped", EnumSet.of(StageState.SKIPPED)));
+
     private final OrderRepository orderRepository;
+    private final OrderMapper mapper;
+    private final WipCounters wipCounters;
+    private final WorkQueueIndex workQueueIndex;
+    private final AiContextProperties properties;
+
+    private final TreeMap<ContextKey, Fragment> fragments = new TreeMap<>();
+    private final LongObjectHashMap<ContextKey> keys = new LongObjectHashMap<>();
+    private long generation;
+    private boolean loaded;
+    // True when every order in the system is held, so nothing unseen can rank above a held one.
+    private boolean complete;
 
-    public AiContextService(OrderRepository orderRepository) {
+    public AiContextService(OrderRepository orderRepository,
+                            OrderMapper mapper,
+                            WipCounters wipCounters,
+                            WorkQueueIndex workQueueIndex,
+                            AiContextProperties properties) {
         this.orderRepository = orderRepository;
+        this.mapper = mapper;
+        this.wipCounters = wipCounters;
+        this.workQueueIndex = workQueueIndex;
+        this.properties = properties;
+    }
+
+    public AiChatRequest.Message buildContextMessage(String question) {
+        return new AiChatRequest.Message("system", buildContext(question));
     }
 
-    public AiChatRequest.Message buildContextMessage() {
-        return new AiChatRequest.Message("system", buildContext());
+    /**
+     * Changes whenever an order change has been applied, so anything derived from the context (such as a
+     * cached answer) can tell whether the data it was built from is still current.
+     */
+    public synchronized long fingerprint() {
+        return generation;
     }
 
-    private String buildContext() {
-        List<Order> orders = orderRepository.findAll();
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderChanged(OrderChangedEvent event) {
+        generation++;
+        if (!loaded) {
+            return;
+        }
+        OrderResponse order = event.order();
+        ContextKey key = ContextKey.of(order);
+        ContextKey previous = keys.remove(order.id());
+        if (previous != null) {
+            fragments.remove(previous);
+        }
+
+        if (complete || fragments.isEmpty() || key.compareTo(fragments.lastKey()) < 0) {
+            put(key, order);
+            if (fragments.size() > MAX_ORDERS) {
+                keys.remove(fragments.pollLastEntry().getKey().orderId());
+                complete = false;
+            }
+        } else if (previous != null) {
+            // The order fell past the last one held; an order outside the snapshot may now belong in it.
+            loaded = false;
+        }
+    }
+
+    private String buildContext(String question) {
+        long totalOrders = wipCounters.totalOrders();
         StringBuilder builder = new StringBuilder();
         builder.append("You are ProduSoft's workflow assistant. Use only the data below to answer operations questions. ")
             .append("If something is unknown in the data, say so. ")
@@ -42,57 +142,156 @@ public class AiContextService {
             .append(TIMESTAMP_FORMATTER.format(Instant.now()))
             .append(".\n\n");
 
-        if (orders.isEmpty()) {
+        Relevance relevance = Relevance.of(question);
+        List<Fragment> candidates = candidates(question, relevance);
+        if (candidates.isEmpty()) {
             builder.append("No orders currently exist in the system.");
             return builder.toString();
         }
 
-        builder.append("Total orders: ").append(orders.size()).append(". ")
-            .append("Showing up to ").append(Math.min(MAX_ORDERS, orders.size()))
-            .append(" most recent by priority and creation time.\n");
+        List<Scored> scored = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            scored.add(new Scored(candidates.get(i), relevance.score(candidates.get(i).order()), i));
+        }
+        // Stable on the snapshot position, so equally relevant orders keep priority order.
+        scored.sort(Comparator.comparingInt(Scored::score).reversed().thenComparingInt(Scored::position));
 
-        orders.stream()
-            .sorted(Comparator
-                .comparing((Order order) -> Optional.ofNullable(order.getPriority()).orElse(0), Comparator.reverseOrder())
-                .thenComparing(Order::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())))
-            .limit(MAX_ORDERS)
-            .forEach(order -> appendOrderSummary(builder, order));
+        int budget = properties.getContextTokenBudget();
+        int used = 0;
+        boolean anyRelevant = false;
+        StringBuilder orders = new StringBuilder();
+        int shown = 0;
+        for (Scored candidate : scored) {
+            Fragment fragment = candidate.fragment();
+            if (used + fragment.tokens() > budget) {
+                continue;
+            }
+            used += fragment.tokens();
+            anyRelevant |= candidate.score() > 0;
+            orders.append(fragment.text());
+            shown++;
+        }
 
+        builder.append("Total orders: ").append(totalOrders).append(". ")
+            .append("Showing ").append(shown)
+            .append(anyRelevant
+                ? " orders, most relevant to the question first.\n"
+                : " most recent by priority and creation time.\n")
+            .append(orders);
         return builder.toString();
     }
 
-    private void appendOrderSummary(StringBuilder builder, Order order) {
-        builder.append("\nOrder ").append(Optional.ofNullable(order.getOrderNumber()).orElse("unknown"))
-            .append(" (id=").append(order.getId()).append(")");
-        if (order.getPriority() != null) {
-            builder.append(" priority ").append(order.getPriority());
+    /**
+     * The held snapshot, followed by any order the question names by number, or whose active stage is assigned
+     * to someone it names, that is not part of it.
+     */
+    private List<Fragment> candidates(String question, Relevance relevance) {
+        List<Fragment> candidates = new ArrayList<>(snapshot());
+        LongHashSet held = new LongHashSet();
+        Set<String> mentionedNumbers = Relevance.orderNumberCandidates(question);
+        Set<String> heldNumbers = new HashSet<>();
+        candidates.forEach(fragment -> {
+            held.add(fragment.order().id());
+            heldNumbers.add(upper(fragment.order().orderNumber()));
+        });
+        mentionedNumbers.removeIf(number -> heldNumbers.contains(upper(number)));
+        List<Order> extra = new ArrayList<>();
+        if (!mentionedNumbers.isEmpty()) {
+            extra.addAll(orderRepository.findAllWithStagesByOrderNumberIn(mentionedNumbers));
+        }
+        Set<Long> assigned = new HashSet<>();
+        for (StageType stage : StageType.values()) {
+            workQueueIndex.find(stage, ASSIGNED_STATES).orElse(List.of()).stream()
+                .filter(item -> item.assignee() != null && relevance.words().contains(item.assignee().toLowerCase(Locale.ROOT)))
+                .map(WorkQueueItemResponse::orderId)
+                .filter(orderId -> !held.contains(orderId))
+                .forEach(assigned::add);
+        }
+        extra.forEach(order -> assigned.remove(order.getId()));
+        if (!assigned.isEmpty()) {
+            extra.addAll(orderRepository.findAllWithStagesByIdIn(assigned));
+        }
+        extra.stream()
+            .filter(order -> held.add(order.getId()))
+            .map(mapper::toOrderResponse)
+            .map(this::fragment)
+            .forEach(candidates::add);
+        return candidates;
+    }
+
+    private List<Fragment> snapshot() {
+        long observedGeneration;
+        synchronized (this) {
+            if (loaded) {
+                return List.copyOf(fragments.values());
+            }
+            observedGeneration = generation;
+        }
+
+        List<Long> ids = orderRepository.findContextOrderIds(Limit.of(MAX_ORDERS));
+        TreeMap<ContextKey, Fragment> reloaded = new TreeMap<>();
+        orderRepository.findAllWithStagesByIdIn(ids).stream()
+            .map(mapper::toOrderResponse)
+            .forEach(order -> reloaded.put(ContextKey.of(order), fragment(order)));
+
+        synchronized (this) {
+            // Changes committed while loading may not be in the rows read; keep the snapshot cold in that case.
+            if (!loaded && generation == observedGeneration) {
+                fragments.clear();
+                keys.clear();
+                reloaded.keySet().forEach(key -> keys.put(key.orderId(), key));
+                fragments.putAll(reloaded);
+                complete = reloaded.size() < MAX_ORDERS;
+                loaded = true;
+            }
+        }
+        return List.copyOf(reloaded.values());
+    }
+
+    private void put(ContextKey key, OrderResponse order) {
+        fragments.put(key, fragment(order));
+        keys.put(order.id(), key);
+    }
+
+    private Fragment fragment(OrderResponse order) {
+        String text = renderOrder(order);
+        return new Fragment(order, text, AiPromptBuilder.estimateTokens(text));
+    }
+
+    private String renderOrder(OrderResponse order) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("\nOrder ").append(Optional.ofNullable(order.orderNumber()).orElse("unknown"))
+            .append(" (id=").append(order.id()).append(")");
+        if (order.priority() != null) {
+            builder.append(" priority ").append(order.priority());
         }
-        builder.append("; overall state ").append(nullableState(order.getOverallState()))
-            .append("; current stage ").append(nullableStage(order.getCurrentStage())).append(".");
-        if (order.getNotes() != null && !order.getNotes().isBlank()) {
-            builder.append(" Notes: ").append(order.getNotes());
+        builder.append("; overall state ").append(nullableState(order.overallState()))
+            .append("; current stage ").append(nullableStage(order.currentStage())).append(".");
+        if (order.notes() != null && !order.notes().isBlank()) {
+            builder.append(" Notes: ").append(order.notes());
         }
         builder.append("\n  Stages:");
 
-        order.getStages().stream()
-            .sorted(Comparator.comparing(status -> status.getStage().ordinal()))
+        order.stages().stream()
+            .sorted(Comparator.comparing(status -> status.stage().ordinal()))
             .forEach(status -> appendStageSummary(builder, status));
+        return builder.toString();
     }
 
-    private void appendStageSummary(StringBuilder builder, OrderStageStatus status) {
-        builder.append("\n    - ").append(status.getStage().name().toLowerCase(Locale.ROOT))
-            .append(": ").append(status.getState().name().toLowerCase(Locale.ROOT));
-        if (status.getAssignee() != null) {
-            builder.append(" (assignee ").append(status.getAssignee()).append(")");
+    private void appendStageSummary(StringBuilder builder, OrderStageStatusResponse status) {
+        builder.append("\n    - ").append(status.stage().name().toLowerCase(Locale.ROOT))
+            .append(": ").append(status.state().name().toLowerCase(Locale.ROOT));
+        if (status.assignee() != null) {
+            builder.append(" (assignee ").append(status.assignee()).append(")");
         }
-        if (status.getExceptionReason() != null && !status.getExceptionReason().isBlank()) {
-            builder.append(" exception=").append(status.getExceptionReason());
+        if (status.exceptionReason() != null && !status.exceptionReason().isBlank()) {
+            builder.append(" exception=").append(status.exceptionReason());
         }
-        if (status.getSupervisorNotes() != null && !status.getSupervisorNotes().isBlank()) {
-            builder.append(" supervisorNotes=").append(status.getSupervisorNotes());
+        if (status.supervisorNotes() != null && !status.supervisorNotes().isBlank()) {
+            builder.append(" supervisorNotes=").append(status.supervisorNotes());
         }
-        if (status.getNotes() != null && !status.getNotes().isBlank()) {
-            builder.append(" notes=").append(status.getNotes());
+        if (status.notes() != null && !status.notes().isBlank()) {
+            builder.append(" notes=").append(status.notes());
         }
     }
 
@@ -103,4 +302,95 @@ public class AiContextService {
     private String nullableState(StageState state) {
         return state == null ? "unknown" : state.name().toLowerCase(Locale.ROOT);
     }
+
+    /**
+     * Context ordering, matching {@code OrderRepository#findContextOrderIds}: priority descending (missing
+     * priority counts as 0), then newest first, then highest id.
+     */
+    private record ContextKey(int priority, Instant createdAt, long orderId) implements Comparable<ContextKey> {
+
+        private static final Comparator<ContextKey> ORDER = Comparator
+            .comparingInt(ContextKey::priority).reversed()
+            .thenComparing(ContextKey::createdAt, Comparator.nullsLast(Comparator.reverseOrder()))
+            .thenComparing(Comparator.comparingLong(ContextKey::orderId).reversed());
+
+        private static ContextKey of(OrderResponse order) {
+            return new ContextKey(order.priority() == null ? 0 : order.priority(), order.createdAt(), order.id());
+        }
+
+        @Override
+        public int compareTo(ContextKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static String upper(String value) {
+        return value == null ? null : value.toUpperCase(Locale.ROOT);
+    }
+
+    private record Fragment(OrderResponse order, String text, int tokens) {
+    }
+
+    private record Scored(Fragment fragment, int score, int position) {
+    }
+
+    /**
+     * What a question refers to: words, stage names and the states its wording implies.
+     */
+    private record Relevance(Set<String> words, Set<StageType> stages, Set<StageState> states) {
+
+        private static Relevance of(String question) {
+            Set<String> words = new HashSet<>();
+            Set<StageType> stages = EnumSet.noneOf(StageType.class);
+            Set<StageState> states = EnumSet.noneOf(StageState.class);
+            Matcher matcher = WORD.matcher(question.toLowerCase(Locale.ROOT));
+            while (matcher.find()) {
+                String word = matcher.group();
+                words.add(word);
+                for (StageType stage : StageType.values()) {
+                    if (word.equals(stage.name().toLowerCase(Locale.ROOT))) {
+                        stages.add(stage);
+                    }
+                }
+                states.addAll(STATE_WORDS.getOrDefault(word, Set.of()));
+            }
+            return new Relevance(words, stages, states);
+        }
+
+        /**
+         * Words that could be order numbers: anything containing a digit, both as typed and upper-cased (the
+         * form order numbers are normally stored in), so the lookup can match them exactly on the unique index.
+         */
+        private static Set<String> orderNumberCandidates(String question) {
+            Set<String> candidates = new HashSet<>();
+            Matcher matcher = WORD.matcher(question);
+            while (matcher.find()) {
+                String word = matcher.group();
+                if (word.length() >= 3 && word.chars().anyMatch(Character::isDigit)) {
+                    candidates.add(word);
+                    candidates.add(upper(word));
+                }
+            }
+            return candidates;
+        }
+
+        private int score(OrderResponse order) {
+            int score = 0;
+            if (order.orderNumber() != null && words.contains(order.orderNumber().toLowerCase(Locale.ROOT))) {
+                score += 100;
+            }
+            if (order.currentStage() != null && stages.contains(order.currentStage())) {
+                score += 5;
+            }
+            for (OrderStageStatusResponse stage : order.stages()) {
+                if (stage.assignee() != null && words.contains(stage.assignee().toLowerCase(Locale.ROOT))) {
+                    score += 30;
+                }
+                if (states.contains(stage.state())) {
+                    score += stages.isEmpty() || stages.contains(stage.stage()) ? 10 : 2;
+                }
+            }
+            return score;
+        }
+    }
 }
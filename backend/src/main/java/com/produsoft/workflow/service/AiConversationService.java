@@ -1,28 +1,37 @@
 package com.produsoft.workflow.service;
 
+import com.produsoft.workflow.config.AiStreamingProperties;
 import com.produsoft.workflow.domain.AiConversation;
 import com.produsoft.workflow.domain.AiMessage;
 import com.produsoft.workflow.domain.AiMessageRole;
 import com.produsoft.workflow.dto.AiChatRequest;
 import com.produsoft.workflow.dto.AiChatResponse;
 import com.produsoft.workflow.dto.AiConversationMapper;
-import com.produsoft.workflow.dto.AiConversationSummaryResponse;
+import com.produsoft.workflow.dto.AiConversationPageResponse;
+import com.produsoft.workflow.dto.AiMessagePageResponse;
 import com.produsoft.workflow.dto.CreateConversationRequest;
 import com.produsoft.workflow.dto.SendMessageRequest;
 import com.produsoft.workflow.exception.AiClientException;
 import com.produsoft.workflow.exception.InvalidStageActionException;
 import com.produsoft.workflow.exception.NotFoundException;
+import com.produsoft.workflow.repository.AiConversationCursor;
 import com.produsoft.workflow.repository.AiConversationRepository;
+import com.produsoft.workflow.repository.AiConversationSummaryRow;
 import com.produsoft.workflow.repository.AiMessageRepository;
 import com.produsoft.workflow.dto.AiConversationResponse;
 import jakarta.transaction.Transactional;
 import java.io.IOException;
+import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.Optional;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
@@ -34,13 +43,21 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 @Transactional
 public class AiConversationService {
 
-    private static final int MAX_HISTORY_MESSAGES = 20;
+    private static final Logger log = LoggerFactory.getLogger(AiConversationService.class);
+
+    private static final int DEFAULT_MESSAGE_PAGE_SIZE = 50;
+    private static final int MAX_MESSAGE_PAGE_SIZE = 200;
 
     private final AiConversationRepository conversationRepository;
     private final AiMessageRepository messageRepository;
     private final AiChatService aiChatService;
     private final AiConversationMapper mapper;
     private final AiContextService contextService;
+    private final AiPromptBuilder promptBuilder;
+    private final AiStreamExecutor streamExecutor;
+    private final AiStreamingProperties streamingProperties;
+    private final AiResponseCache responseCache;
+    private final AiIntentRouter intentRouter;
     private final TransactionTemplate transactionTemplate;
 
     public AiConversationService(AiConversationRepository conversationRepository,
@@ -48,28 +65,80 @@ public class AiConversationService {
                                  AiChatService aiChatService,
                                  AiConversationMapper mapper,
                                  AiContextService contextService,
+                                 AiPromptBuilder promptBuilder,
+                                 AiStreamExecutor streamExecutor,
+                                 AiStreamingProperties streamingProperties,
+                                 AiResponseCache responseCache,
+                                 AiIntentRouter intentRouter,
                                  PlatformTransactionManager transactionManager) {
         this.conversationRepository = conversationRepository;
         this.messageRepository = messageRepository;
         this.aiChatService = aiChatService;
         this.mapper = mapper;
         this.contextService = contextService;
+        this.promptBuilder = promptBuilder;
+        this.streamExecutor = streamExecutor;
+        this.streamingProperties = streamingProperties;
+        this.responseCache = responseCache;
+        this.intentRouter = intentRouter;
         this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
-    public List<AiConversationSummaryResponse> listConversations(String username) {
-        return conversationRepository.findByCreatedByOrderByUpdatedAtDesc(username).stream()
-            .map(conversation -> mapper.toSummary(
-                conversation,
-                messageRepository.findTopByConversationIdOrderByCreatedAtDesc(conversation.getId())))
-            .toList();
+    /**
+     * One page of the user's conversations, most recently updated first, each with a preview of its latest
+     * message; a single query regardless of page size.
+     */
+    public AiConversationPageResponse listConversations(String username, String cursor, int limit) {
+        List<AiConversationSummaryRow> rows;
+        if (cursor != null && !cursor.isBlank()) {
+            AiConversationCursor position;
+            try {
+                position = AiConversationCursor.decode(cursor);
+            } catch (IllegalArgumentException ex) {
+                throw new InvalidStageActionException(ex.getMessage());
+            }
+            rows = conversationRepository.findSummariesAfter(
+                username, position.updatedAt(), position.id(), Limit.of(limit + 1));
+        } else {
+            rows = conversationRepository.findSummaries(username, Limit.of(limit + 1));
+        }
+        boolean hasMore = rows.size() > limit;
+        List<AiConversationSummaryRow> page = hasMore ? rows.subList(0, limit) : rows;
+        return new AiConversationPageResponse(
+            page.stream().map(mapper::toSummary).toList(),
+            hasMore ? AiConversationCursor.of(page.get(limit - 1)).encode() : null,
+            hasMore);
     }
 
+    /**
+     * The conversation with its newest messages; older ones are fetched through {@link #getMessages}
+     * starting from {@link AiConversationResponse#nextBefore()}.
+     */
     public AiConversationResponse getConversation(String username, Long conversationId) {
-        AiConversation conversation = conversationRepository.findWithMessagesByIdAndCreatedBy(conversationId, username)
-            .orElseThrow(() -> new NotFoundException("Conversation not found: " + conversationId));
-        return mapper.toResponse(conversation);
+        return withLatestMessages(findConversation(username, conversationId));
+    }
+
+    /**
+     * Pages backwards through a conversation: the newest {@code limit} messages, or those before the given
+     * message id, returned oldest first.
+     */
+    public AiMessagePageResponse getMessages(String username, Long conversationId, Long before, int limit) {
+        findConversation(username, conversationId);
+        return messagePage(conversationId, before, limit);
+    }
+
+    private AiMessagePageResponse messagePage(Long conversationId, Long before, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_MESSAGE_PAGE_SIZE));
+        List<AiMessage> newestFirst = before == null
+            ? messageRepository.findByConversationIdOrderByIdDesc(conversationId, Limit.of(pageSize + 1))
+            : messageRepository.findByConversationIdAndIdLessThanOrderByIdDesc(conversationId, before, Limit.of(pageSize + 1));
+        boolean hasMore = newestFirst.size() > pageSize;
+        List<AiMessage> page = new ArrayList<>(newestFirst.subList(0, Math.min(pageSize, newestFirst.size())));
+        Collections.reverse(page);
+        return new AiMessagePageResponse(
+            page.stream().map(mapper::toMessage).toList(),
+            hasMore ? page.get(0).getId() : null);
     }
 
     public AiConversationResponse createConversation(String username, CreateConversationRequest request) {
@@ -79,72 +148,64 @@ public class AiConversationService {
         conversationRepository.save(conversation);
 
         if (StringUtils.hasText(request.initialMessage())) {
-            SendMessageRequest sendMessageRequest = new SendMessageRequest(request.initialMessage());
+            SendMessageRequest sendMessageRequest = new SendMessageRequest(request.initialMessage(), null);
             return sendMessage(username, conversation.getId(), sendMessageRequest);
         }
 
-        return mapper.toResponse(conversation);
+        return mapper.toResponse(conversation, List.of(), null);
     }
 
     public AiConversationResponse renameConversation(String username, Long conversationId, String newTitle) {
-        AiConversation conversation = conversationRepository.findWithMessagesByIdAndCreatedBy(conversationId, username)
-            .orElseThrow(() -> new NotFoundException("Conversation not found: " + conversationId));
+        AiConversation conversation = findConversation(username, conversationId);
         conversation.setTitle(normalizeTitle(newTitle));
         conversation.touch();
-        return mapper.toResponse(conversation);
+        return withLatestMessages(conversation);
     }
 
     public AiConversationResponse sendMessage(String username, Long conversationId, SendMessageRequest request) {
-        AiConversation conversation = conversationRepository.findWithMessagesByIdAndCreatedBy(conversationId, username)
-            .orElseThrow(() -> new NotFoundException("Conversation not found: " + conversationId));
+        AiConversation conversation = findConversation(username, conversationId);
         String content = request.content().trim();
         if (content.length() > 4000) {
             throw new InvalidStageActionException("Message is too long. Limit to 4000 characters.");
         }
 
-        AiMessage userMessage = new AiMessage();
-        userMessage.setRole(AiMessageRole.USER);
-        userMessage.setContent(content);
-        conversation.addMessage(userMessage);
-        messageRepository.save(userMessage);
+        AiMessage userMessage = appendMessage(conversation, AiMessageRole.USER, content);
 
         if (conversation.getTitle() == null) {
             conversation.setTitle(deriveTitle(content));
         }
 
-        List<AiChatRequest.Message> history = buildHistoryMessages(conversation);
-        List<AiChatRequest.Message> messages = new ArrayList<>();
-        messages.add(contextService.buildContextMessage());
-        messages.addAll(history);
-        AiChatResponse aiResponse = aiChatService.chat(new AiChatRequest(
-            null,
-            messages,
-            Boolean.FALSE
-        ));
-
-        AiMessage assistantMessage = new AiMessage();
-        assistantMessage.setRole(AiMessageRole.ASSISTANT);
-        assistantMessage.setContent(aiResponse.content());
-        conversation.addMessage(assistantMessage);
-        messageRepository.save(assistantMessage);
+        long contextFingerprint = contextService.fingerprint();
+        boolean firstQuestion = isFirstQuestion(conversation, userMessage);
+        String reply = intentRouter.answer(content)
+            .or(() -> cachedReply(request, content, contextFingerprint, firstQuestion))
+            .orElse(null);
+        if (reply == null) {
+            List<AiChatRequest.Message> messages = promptBuilder.build(conversation, content);
+            AiChatResponse aiResponse = aiChatService.chat(new AiChatRequest(
+                null,
+                messages,
+                Boolean.FALSE
+            ));
+            reply = aiResponse.content();
+            if (firstQuestion) {
+                responseCache.put(content, contextFingerprint, reply);
+            }
+        }
 
-        conversationRepository.save(conversation);
-        return mapper.toResponse(conversation);
+        AiMessage assistantMessage = appendMessage(conversation, AiMessageRole.ASSISTANT, reply);
+        promptBuilder.checkpoint(conversation);
+        return mapper.toResponse(conversation, List.of(userMessage, assistantMessage), null);
     }
 
     public SseEmitter streamMessage(String username, Long conversationId, SendMessageRequest request) {
-        AiConversation conversation = conversationRepository.findWithMessagesByIdAndCreatedBy(conversationId, username)
-            .orElseThrow(() -> new NotFoundException("Conversation not found: " + conversationId));
+        AiConversation conversation = findConversation(username, conversationId);
         String content = request.content().trim();
         if (content.length() > 4000) {
             throw new InvalidStageActionException("Message is too long. Limit to 4000 characters.");
         }
 
-        AiMessage userMessage = new AiMessage();
-        userMessage.setRole(AiMessageRole.USER);
-        userMessage.setContent(content);
-        conversation.addMessage(userMessage);
-        messageRepository.save(userMessage);
+        AiMessage userMessage = appendMessage(conversation, AiMessageRole.USER, content);
 
         if (conversation.getTitle() == null) {
             conversation.setTitle(deriveTitle(content));
@@ -152,11 +213,15 @@ public class AiConversationService {
 
         conversationRepository.save(conversation);
 
-        List<AiChatRequest.Message> history = buildHistoryMessages(conversation);
-        List<AiChatRequest.Message> messages = new ArrayList<>();
-        messages.add(contextService.buildContextMessage());
-        messages.addAll(history);
+        long contextFingerprint = contextService.fingerprint();
+        boolean firstQuestion = isFirstQuestion(conversation, userMessage);
+        Optional<String> immediate = intentRouter.answer(content)
+            .or(() -> cachedReply(request, content, contextFingerprint, firstQuestion));
+        if (immediate.isPresent()) {
+            return replyWithoutModel(conversation, userMessage, immediate.get());
+        }
 
+        List<AiChatRequest.Message> messages = promptBuilder.build(conversation, content);
         AiChatRequest chatRequest = new AiChatRequest(
             null,
             messages,
@@ -165,73 +230,163 @@ public class AiConversationService {
 
         SseEmitter emitter = new SseEmitter(0L);
         AtomicBoolean emitterOpen = new AtomicBoolean(true);
-        emitter.onCompletion(() -> emitterOpen.set(false));
-        emitter.onTimeout(() -> emitterOpen.set(false));
-        emitter.onError(error -> emitterOpen.set(false));
-
-        CompletableFuture.runAsync(() -> {
-            StringBuilder assistantBuilder = new StringBuilder();
-            try {
-                String assistantReply = aiChatService.chatStream(chatRequest, delta -> {
-                    if (delta == null) {
-                        return;
+        AtomicReference<AiChatStream> activeStream = new AtomicReference<>();
+        Runnable closeStream = () -> {
+            emitterOpen.set(false);
+            AiChatStream stream = activeStream.get();
+            if (stream != null) {
+                stream.cancel();
+            }
+        };
+        emitter.onCompletion(closeStream);
+        emitter.onTimeout(closeStream);
+        emitter.onError(error -> closeStream.run());
+
+        long partialSaveNanos = streamingProperties.getPartialSaveInterval().toNanos();
+        streamExecutor.submit(() -> {
+            AtomicReference<AiMessage> partialReply = new AtomicReference<>();
+            try (AiChatStream stream = aiChatService.openStream(chatRequest)) {
+                activeStream.set(stream);
+                if (!emitterOpen.get()) {
+                    stream.cancel();
+                }
+                long nextSave = System.nanoTime() + partialSaveNanos;
+                String frame;
+                while ((frame = stream.nextFrame()) != null) {
+                    safeSendToken(emitter, emitterOpen, frame);
+                    if (!emitterOpen.get()) {
+                        // The browser is gone; stop the generation rather than reading it to the end.
+                        stream.cancel();
+                    } else if (partialSaveNanos > 0 && System.nanoTime() - nextSave >= 0) {
+                        String soFar = stream.reply();
+                        partialReply.set(transactionTemplate.execute(
+                            status -> storeReply(conversationId, partialReply.get(), soFar)));
+                        nextSave = System.nanoTime() + partialSaveNanos;
                     }
-                    assistantBuilder.append(delta);
-                    safeSendToken(emitter, emitterOpen, delta);
-                });
+                }
+                if (stream.isCancelled()) {
+                    discardPartialReply(partialReply.get());
+                    completeQuietly(emitter);
+                    return;
+                }
+                String assistantReply = stream.reply();
                 if (!StringUtils.hasText(assistantReply)) {
                     throw new AiClientException("Received empty response from Ollama.");
                 }
+                if (firstQuestion) {
+                    responseCache.put(content, contextFingerprint, assistantReply);
+                }
                 AiConversationResponse response = transactionTemplate.execute(status -> {
-                    AiConversation refreshed = conversationRepository
-                        .findWithMessagesByIdAndCreatedBy(conversationId, username)
-                        .orElseThrow(() -> new NotFoundException("Conversation not found: " + conversationId));
-                    AiMessage assistantMessage = new AiMessage();
-                    assistantMessage.setRole(AiMessageRole.ASSISTANT);
-                    assistantMessage.setContent(assistantReply);
-                    refreshed.addMessage(assistantMessage);
-                    messageRepository.save(assistantMessage);
-                    conversationRepository.save(refreshed);
-                    return mapper.toResponse(refreshed);
+                    AiMessage assistantMessage = storeReply(conversationId, partialReply.get(), assistantReply);
+                    Instant now = Instant.now();
+                    conversationRepository.touch(conversationId, now);
+                    if (promptBuilder.isCheckpointDue(conversation)) {
+                        promptBuilder.checkpoint(findConversation(username, conversationId));
+                    }
+                    conversation.setUpdatedAt(now);
+                    return mapper.toResponse(conversation, List.of(userMessage, assistantMessage), null);
                 });
                 safeSendConversation(emitter, emitterOpen, response);
                 completeQuietly(emitter);
             } catch (Exception ex) {
+                discardPartialReply(partialReply.get());
                 if (emitterOpen.get()) {
                     handleStreamingError(emitter, ex);
                     return;
                 }
                 completeQuietly(emitter);
             }
-        });
+        }, error -> handleStreamingError(emitter, error));
 
         return emitter;
     }
 
     public void deleteConversation(String username, Long conversationId) {
-        AiConversation conversation = conversationRepository.findByIdAndCreatedBy(conversationId, username)
-            .orElseThrow(() -> new NotFoundException("Conversation not found: " + conversationId));
+        AiConversation conversation = findConversation(username, conversationId);
+        messageRepository.deleteByConversationId(conversationId);
         conversationRepository.delete(conversation);
     }
 
-    private List<AiChatRequest.Message> buildHistoryMessages(AiConversation conversation) {
-        List<AiMessage> sortedMessages = conversation.getMessages().stream()
-            .sorted(Comparator.comparing(AiMessage::getCreatedAt))
-            .toList();
-
-        int fromIndex = Math.max(0, sortedMessages.size() - MAX_HISTORY_MESSAGES);
-        List<AiChatRequest.Message> history = new ArrayList<>();
-        for (AiMessage message : sortedMessages.subList(fromIndex, sortedMessages.size())) {
-            history.add(new AiChatRequest.Message(
-                switch (message.getRole()) {
-                    case USER -> "user";
-                    case ASSISTANT -> "assistant";
-                    case SYSTEM -> "system";
-                },
-                message.getContent()
-            ));
+    /**
+     * Cached answers are shared between conversations and users, so only a question whose prompt carries no
+     * history may be served from, or stored in, the cache.
+     */
+    private Optional<String> cachedReply(SendMessageRequest request, String content, long contextFingerprint,
+                                         boolean firstQuestion) {
+        return request.cacheAllowed() && firstQuestion
+            ? responseCache.get(content, contextFingerprint)
+            : Optional.empty();
+    }
+
+    private boolean isFirstQuestion(AiConversation conversation, AiMessage userMessage) {
+        return conversation.getSummarizedCount() == 0
+            && !messageRepository.existsByConversationIdAndIdLessThan(conversation.getId(), userMessage.getId());
+    }
+
+    /**
+     * Answers a streamed request that was routed or served from the cache: the reply is stored with the
+     * conversation and sent as a single token followed by the usual conversation event.
+     */
+    private SseEmitter replyWithoutModel(AiConversation conversation, AiMessage userMessage, String reply) {
+        AiMessage assistantMessage = appendMessage(conversation, AiMessageRole.ASSISTANT, reply);
+        promptBuilder.checkpoint(conversation);
+
+        SseEmitter emitter = new SseEmitter(0L);
+        AtomicBoolean emitterOpen = new AtomicBoolean(true);
+        safeSendToken(emitter, emitterOpen, reply);
+        safeSendConversation(emitter, emitterOpen, mapper.toResponse(conversation, List.of(userMessage, assistantMessage), null));
+        completeQuietly(emitter);
+        return emitter;
+    }
+
+    private AiConversation findConversation(String username, Long conversationId) {
+        return conversationRepository.findByIdAndCreatedBy(conversationId, username)
+            .orElseThrow(() -> new NotFoundException("Conversation not found: " + conversationId));
+    }
+
+    /**
+     * Inserts the message on its own rather than through {@link AiConversation#getMessages()}, so adding to a
+     * long conversation never loads its history.
+     */
+    private AiMessage appendMessage(AiConversation conversation, AiMessageRole role, String content) {
+        AiMessage message = new AiMessage();
+        message.setRole(role);
+        message.setContent(content);
+        message.setConversation(conversation);
+        conversation.touch();
+        return messageRepository.save(message);
+    }
+
+    /**
+     * Inserts a streamed reply, or overwrites the text of the partial reply saved earlier, without loading the
+     * conversation or its history.
+     */
+    private AiMessage storeReply(Long conversationId, AiMessage partial, String content) {
+        if (partial != null) {
+            messageRepository.updateContent(partial.getId(), content);
+            partial.setContent(content);
+            return partial;
+        }
+        AiMessage message = new AiMessage();
+        message.setRole(AiMessageRole.ASSISTANT);
+        message.setContent(content);
+        message.setConversation(conversationRepository.getReferenceById(conversationId));
+        return messageRepository.save(message);
+    }
+
+    private void discardPartialReply(AiMessage partial) {
+        if (partial == null) {
+            return;
         }
-        return history;
+        try {
+            transactionTemplate.executeWithoutResult(status -> messageRepository.deleteById(partial.getId()));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to discard partial AI reply {}", partial.getId(), ex);
+        }
+    }
+
+    private AiConversationResponse withLatestMessages(AiConversation conversation) {
+        return mapper.toResponse(conversation, messagePage(conversation.getId(), null, DEFAULT_MESSAGE_PAGE_SIZE));
     }
 
     private String normalizeTitle(String title) {
@@ -0,0 +1,256 @@
+package com.produsoft.workflow.service;
+
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.dto.StageSummaryResponse;
+import com.produsoft.workflow.dto.WipSummaryResponse;
+import com.produsoft.workflow.dto.WorkQueueItemResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers questions that map directly onto workflow data (counts per state, the WIP summary, orders in
+ * exception, what an operator is working on) from the WIP counters and the work queue index, without calling
+ * the model. Templates must match the whole normalized question, so anything more elaborate still goes to the
+ * model. Every decision is counted in {@code ai.intent.routing} tagged with the route taken.
+ */
+@Component
+public class AiIntentRouter {
+
+    private static final int MAX_LISTED = 20;
+    // "Blocked" is left to the model: a BLOCKED stage is one not reached yet, while the question usually means
+    // exceptions as well (see AiContextService), which no single counter answers.
+    private static final String STATE = "(?<state>pending|waiting|in progress|active|in exception|exceptions?|flagged"
+        + "|completed|complete|done|finished|in rework|rework|skipped)";
+    private static final String STAGE = "(?: (?:in|at|for) (?:the )?(?<stage>preparation|assembly|delivery)(?: stage)?)?";
+    private static final String WHO = "(?<who>[\\w.@-]+)";
+
+    enum Intent {
+        STATE_COUNT,
+        TOTAL_ORDERS,
+        WIP_SUMMARY,
+        EXCEPTIONS,
+        ASSIGNEE_WORK
+    }
+
+    private final WipCounters wipCounters;
+    private final OrderWorkflowService workflowService;
+    private final List<Route> routes;
+    private final Map<Intent, Counter> routed = new EnumMap<>(Intent.class);
+    private final Counter toModel;
+
+    public AiIntentRouter(WipCounters wipCounters, OrderWorkflowService workflowService, MeterRegistry meterRegistry) {
+        this.wipCounters = wipCounters;
+        this.workflowService = workflowService;
+        this.routes = List.of(
+            new Route(Intent.STATE_COUNT,
+                "^how many (?:orders |stages )?(?:are |have )?(?:currently )?(?:been )?" + STATE + "(?: orders)?" + STAGE
+                    + "(?: right now| now)?$",
+                this::answerStateCount),
+            new Route(Intent.TOTAL_ORDERS,
+                "^(?:how many orders (?:are there|do we have|exist|are in the system)(?: in total)?"
+                    + "|how many orders in total|(?:what is|what's) the total (?:number of )?orders)$",
+                matcher -> answerTotalOrders()),
+            new Route(Intent.WIP_SUMMARY,
+                "^(?:show |give me |show me )?(?:what is |what's )?(?:the )?(?:current )?(?:wip|work in progress)"
+                    + "(?: summary| status| overview)?$",
+                matcher -> answerWipSummary()),
+            new Route(Intent.EXCEPTIONS,
+                "^(?:which|what|list|show|show me)(?: the)? orders (?:are |have |with )?(?:in exception|exceptions?|flagged)"
+                    + STAGE + "$",
+                this::answerExceptions),
+            new Route(Intent.EXCEPTIONS,
+                "^what(?: is|'s| are) blocking(?: (?:the )?(?<stage>preparation|assembly|delivery)(?: stage)?)?$",
+                this::answerExceptions),
+            new Route(Intent.ASSIGNEE_WORK,
+                "^(?:what is|what's|what are) " + WHO + " working on$",
+                this::answerAssigneeWork),
+            new Route(Intent.ASSIGNEE_WORK,
+                "^(?:(?:which|what|list|show|show me)(?: the)? )?orders (?:are )?(?:assigned to|claimed by) " + WHO + "$",
+                this::answerAssigneeWork));
+        for (Intent intent : Intent.values()) {
+            routed.put(intent, routingCounter(meterRegistry, intent.name().toLowerCase(Locale.ROOT)));
+        }
+        this.toModel = routingCounter(meterRegistry, "model");
+    }
+
+    /**
+     * Returns a deterministic answer when the question matches a known template, or empty when it should go
+     * to the model.
+     */
+    public Optional<String> answer(String question) {
+        String normalized = AiResponseCache.normalize(question);
+        for (Route route : routes) {
+            Matcher matcher = route.pattern().matcher(normalized);
+            if (matcher.matches()) {
+                routed.get(route.intent()).increment();
+                return Optional.of(route.answer().apply(matcher));
+            }
+        }
+        toModel.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Counts stages the way the WIP summary does: "pending" includes rework and "completed" includes skipped.
+     * Without a named stage only completed and exception are answered per order, since those are the only
+     * states an order as a whole is reported in; everything else is totalled over the stages.
+     */
+    private String answerStateCount(Matcher matcher) {
+        StageState state = parseState(matcher.group("state"));
+        StageType stage = parseStage(matcher.group("stage"));
+        String label = stateLabel(state);
+        if (stage != null) {
+            long count = stageTotal(stage, state);
+            return "%d %s %s %s in %s.".formatted(
+                count, count == 1 ? "order" : "orders", count == 1 ? "is" : "are", label, stageLabel(stage));
+        }
+        if (state == StageState.COMPLETED || state == StageState.EXCEPTION) {
+            long count = wipCounters.overallCount(state);
+            return "%d %s %s %s.".formatted(count, count == 1 ? "order" : "orders", count == 1 ? "is" : "are", label);
+        }
+        long total = 0;
+        List<String> perStage = new ArrayList<>(StageType.values().length);
+        for (StageType each : StageType.values()) {
+            long count = stageTotal(each, state);
+            total += count;
+            perStage.add(count + " in " + stageLabel(each));
+        }
+        return "%d %s %s %s (%s).".formatted(
+            total, total == 1 ? "stage" : "stages", total == 1 ? "is" : "are", label, String.join(", ", perStage));
+    }
+
+    private long stageTotal(StageType stage, StageState state) {
+        long count = wipCounters.stageCount(stage, state);
+        return switch (state) {
+            case PENDING -> count + wipCounters.stageCount(stage, StageState.REWORK);
+            case COMPLETED -> count + wipCounters.stageCount(stage, StageState.SKIPPED);
+            default -> count;
+        };
+    }
+
+    private String answerTotalOrders() {
+        long total = wipCounters.totalOrders();
+        return "There %s %d %s in the system.".formatted(total == 1 ? "is" : "are", total, total == 1 ? "order" : "orders");
+    }
+
+    private String answerWipSummary() {
+        WipSummaryResponse summary = wipCounters.summary();
+        StringBuilder builder = new StringBuilder()
+            .append("Work in progress: ").append(summary.totalOrders()).append(" orders in total, ")
+            .append(summary.completedOrders()).append(" completed, ")
+            .append(summary.exceptionOrders()).append(" in exception.");
+        for (StageSummaryResponse stage : summary.stages()) {
+            builder.append("\n- ").append(stageLabel(stage.stage())).append(": ")
+                .append(stage.pending()).append(" pending, ")
+                .append(stage.inProgress()).append(" in progress, ")
+                .append(stage.exceptions()).append(" in exception, ")
+                .append(stage.completed()).append(" completed");
+        }
+        return builder.toString();
+    }
+
+    private String answerExceptions(Matcher matcher) {
+        StageType only = parseStage(matcher.group("stage"));
+        List<WorkQueueItemResponse> items = new ArrayList<>();
+        for (StageType stage : StageType.values()) {
+            if (only == null || only == stage) {
+                items.addAll(workflowService.fetchQueue(stage, List.of(StageState.EXCEPTION)));
+            }
+        }
+        String scope = only == null ? "" : " in " + stageLabel(only);
+        if (items.isEmpty()) {
+            return "No orders are in exception" + scope + ".";
+        }
+        StringBuilder builder = new StringBuilder()
+            .append(items.size()).append(items.size() == 1 ? " stage is" : " stages are")
+            .append(" in exception").append(scope).append(":");
+        appendItems(builder, items, item -> {
+            String reason = item.exceptionReason();
+            return reason == null || reason.isBlank() ? "no reason given" : reason;
+        });
+        return builder.toString();
+    }
+
+    private String answerAssigneeWork(Matcher matcher) {
+        String who = matcher.group("who");
+        List<WorkQueueItemResponse> items = new ArrayList<>();
+        for (StageType stage : StageType.values()) {
+            workflowService.fetchQueue(stage, List.of(StageState.IN_PROGRESS, StageState.EXCEPTION)).stream()
+                .filter(item -> who.equalsIgnoreCase(item.assignee()))
+                .forEach(items::add);
+        }
+        if (items.isEmpty()) {
+            return "Nothing is currently assigned to " + who + ".";
+        }
+        StringBuilder builder = new StringBuilder()
+            .append(who).append(" has ").append(items.size()).append(items.size() == 1 ? " stage" : " stages")
+            .append(" assigned:");
+        appendItems(builder, items, item -> stateLabel(item.stageState()));
+        return builder.toString();
+    }
+
+    private void appendItems(StringBuilder builder,
+                             List<WorkQueueItemResponse> items,
+                             Function<WorkQueueItemResponse, String> detail) {
+        items.stream().limit(MAX_LISTED).forEach(item -> builder
+            .append("\n- ").append(item.orderNumber() == null ? "order " + item.orderId() : item.orderNumber())
+            .append(" (").append(stageLabel(item.stage())).append("): ").append(detail.apply(item)));
+        if (items.size() > MAX_LISTED) {
+            builder.append("\n...and ").append(items.size() - MAX_LISTED).append(" more.");
+        }
+    }
+
+    private static StageState parseState(String value) {
+        return switch (value) {
+            case "pending", "waiting" -> StageState.PENDING;
+            case "in progress", "active" -> StageState.IN_PROGRESS;
+            case "in exception", "exception", "exceptions", "flagged" -> StageState.EXCEPTION;
+            case "completed", "complete", "done", "finished" -> StageState.COMPLETED;
+            case "in rework", "rework" -> StageState.REWORK;
+            case "skipped" -> StageState.SKIPPED;
+            default -> throw new IllegalArgumentException("Unknown state: " + value);
+        };
+    }
+
+    private static StageType parseStage(String value) {
+        return value == null ? null : StageType.fromString(value);
+    }
+
+    private static String stateLabel(StageState state) {
+        return switch (state) {
+            case IN_PROGRESS -> "in progress";
+            case EXCEPTION -> "in exception";
+            case REWORK -> "in rework";
+            default -> state.name().toLowerCase(Locale.ROOT);
+        };
+    }
+
+    private static String stageLabel(StageType stage) {
+        return stage.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter routingCounter(MeterRegistry meterRegistry, String route) {
+        return Counter.builder("ai.intent.routing")
+            .description("AI questions by how they were answered")
+            .tag("route", route)
+            .register(meterRegistry);
+    }
+
+    private record Route(Intent intent, Pattern pattern, Function<Matcher, String> answer) {
+
+        private Route(Intent intent, String regex, Function<Matcher, String> answer) {
+            this(intent, Pattern.compile(regex), answer);
+        }
+    }
+}
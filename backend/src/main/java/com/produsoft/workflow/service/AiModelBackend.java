@@ -0,0 +1,19 @@
+package com.produsoft.workflow.service;
+
+import com.produsoft.workflow.dto.AiChatRequest;
+import com.produsoft.workflow.dto.AiChatResponse;
+
+/**
+ * The model behind {@link AiChatService}. Exactly one implementation is active, chosen by
+ * {@code app.ai.backend}: {@code ollama} (default) or {@code stub} for load tests without a model.
+ */
+public interface AiModelBackend {
+
+    AiChatResponse chat(AiChatRequest request);
+
+    /**
+     * Starts a streamed chat without blocking the caller. The caller drains the returned stream and must close
+     * (or cancel) it when it stops reading.
+     */
+    AiChatStream openStream(AiChatRequest request);
+}
@@ -0,0 +1,220 @@
+package com.produsoft.workflow.service;
+
+import com.produsoft.workflow.config.AiContextProperties;
+import com.produsoft.workflow.domain.AiConversation;
+import com.produsoft.workflow.domain.AiMessage;
+import com.produsoft.workflow.domain.AiMessageRole;
+import com.produsoft.workflow.dto.AiChatRequest;
+import com.produsoft.workflow.repository.AiMessageRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Assembles the messages sent to the model for one question: the relevance-packed system context, the most
+ * recent conversation messages that fit the history budget, and a short extractive summary of the older user
+ * questions that did not. Older questions are folded into a summary stored on the conversation at periodic
+ * checkpoints, so only the messages after the last checkpoint are read per request. Token counts are estimates
+ * (about four characters per token) and are recorded per request in {@code ai.prompt.tokens}.
+ */
+@Component
+public class AiPromptBuilder {
+
+    private static final Logger log = LoggerFactory.getLogger(AiPromptBuilder.class);
+
+    private static final int MESSAGE_OVERHEAD_TOKENS = 4;
+    private static final int SUMMARY_EXCERPT_CHARS = 160;
+
+    private final AiContextService contextService;
+    private final AiMessageRepository messageRepository;
+    private final AiContextProperties properties;
+    private final DistributionSummary contextTokens;
+    private final DistributionSummary historyTokens;
+    private final DistributionSummary totalTokens;
+
+    public AiPromptBuilder(AiContextService contextService,
+                           AiMessageRepository messageRepository,
+                           AiContextProperties properties,
+                           MeterRegistry meterRegistry) {
+        this.contextService = contextService;
+        this.messageRepository = messageRepository;
+        this.properties = properties;
+        this.contextTokens = promptTokens(meterRegistry, "context");
+        this.historyTokens = promptTokens(meterRegistry, "history");
+        this.totalTokens = promptTokens(meterRegistry, "total");
+    }
+
+    public List<AiChatRequest.Message> build(AiConversation conversation, String question) {
+        AiChatRequest.Message context = contextService.buildContextMessage(question);
+        List<AiMessage> sortedMessages = new ArrayList<>(messageRepository.findByConversationIdAndIdGreaterThanOrderByIdDesc(
+            conversation.getId(), checkpointOf(conversation), Limit.of(tailLimit())));
+        Collections.reverse(sortedMessages);
+
+        // Walk back from the newest message; the newest is always sent, even on its own over budget.
+        int budget = properties.getHistoryTokenBudget();
+        int maxMessages = Math.max(1, properties.getMaxHistoryMessages());
+        int used = 0;
+        int fromIndex = sortedMessages.size();
+        while (fromIndex > 0 && sortedMessages.size() - fromIndex < maxMessages) {
+            int tokens = messageTokens(sortedMessages.get(fromIndex - 1).getContent());
+            if (used + tokens > budget && fromIndex < sortedMessages.size()) {
+                break;
+            }
+            used += tokens;
+            fromIndex--;
+        }
+
+        List<AiChatRequest.Message> messages = new ArrayList<>();
+        messages.add(context);
+        AiChatRequest.Message summary = summarize(conversation, sortedMessages.subList(0, fromIndex));
+        if (summary != null) {
+            messages.add(summary);
+            used += messageTokens(summary.content());
+        }
+        for (AiMessage message : sortedMessages.subList(fromIndex, sortedMessages.size())) {
+            messages.add(new AiChatRequest.Message(
+                switch (message.getRole()) {
+                    case USER -> "user";
+                    case ASSISTANT -> "assistant";
+                    case SYSTEM -> "system";
+                },
+                message.getContent()
+            ));
+        }
+
+        int contextSize = messageTokens(context.content());
+        contextTokens.record(contextSize);
+        historyTokens.record(used);
+        totalTokens.record(contextSize + used);
+        log.debug("AI prompt for conversation {}: ~{} tokens (context {}, history {}), {} older messages summarized",
+            conversation.getId(), contextSize + used, contextSize, used, conversation.getSummarizedCount() + fromIndex);
+        return messages;
+    }
+
+    /**
+     * Folds messages that have dropped out of the verbatim window into the conversation's stored summary once
+     * more than {@code checkpointInterval} of them have built up, so building a prompt only ever reads the
+     * messages after the checkpoint. Call after a reply has been saved, inside the same transaction.
+     */
+    public void checkpoint(AiConversation conversation) {
+        int keep = Math.max(1, properties.getMaxHistoryMessages());
+        long checkpoint = checkpointOf(conversation);
+        long pending = messageRepository.countByConversationIdAndIdGreaterThan(conversation.getId(), checkpoint);
+        if (pending <= checkpointThreshold()) {
+            return;
+        }
+        List<AiMessage> folded = messageRepository.findByConversationIdAndIdGreaterThanOrderByIdAsc(
+            conversation.getId(), checkpoint, Limit.of((int) (pending - keep)));
+        List<String> lines = new ArrayList<>(storedSummaryLines(conversation));
+        lines.addAll(questionLines(folded));
+        int budget = properties.getHistorySummaryTokenBudget() - estimateTokens(summaryHeading(Integer.MAX_VALUE));
+        conversation.setSummary(String.join("\n", newestWithin(lines, budget)));
+        conversation.setSummarizedThroughId(folded.get(folded.size() - 1).getId());
+        conversation.setSummarizedCount(conversation.getSummarizedCount() + folded.size());
+        log.debug("Checkpointed AI conversation {} through message {} ({} messages summarized)",
+            conversation.getId(), conversation.getSummarizedThroughId(), conversation.getSummarizedCount());
+    }
+
+    /**
+     * Whether {@link #checkpoint} would fold anything, judged from the conversation's last known checkpoint; lets
+     * callers that hold a detached conversation skip loading it when there is nothing to do.
+     */
+    public boolean isCheckpointDue(AiConversation conversation) {
+        return messageRepository.countByConversationIdAndIdGreaterThan(conversation.getId(), checkpointOf(conversation))
+            > checkpointThreshold();
+    }
+
+    static int estimateTokens(String text) {
+        return text == null || text.isEmpty() ? 0 : (text.length() + 3) / 4;
+    }
+
+    private AiChatRequest.Message summarize(AiConversation conversation, List<AiMessage> older) {
+        int olderCount = conversation.getSummarizedCount() + older.size();
+        if (olderCount == 0) {
+            return null;
+        }
+        String heading = summaryHeading(olderCount);
+        List<String> lines = new ArrayList<>(storedSummaryLines(conversation));
+        lines.addAll(questionLines(older));
+        List<String> questions = newestWithin(lines, properties.getHistorySummaryTokenBudget() - estimateTokens(heading));
+        if (questions.isEmpty()) {
+            return null;
+        }
+        return new AiChatRequest.Message("system", heading + "\n" + String.join("\n", questions));
+    }
+
+    /**
+     * The newest lines that fit the budget, oldest first.
+     */
+    private static List<String> newestWithin(List<String> lines, int budget) {
+        List<String> kept = new ArrayList<>();
+        for (int i = lines.size() - 1; i >= 0; i--) {
+            int tokens = estimateTokens(lines.get(i)) + 1;
+            if (tokens > budget) {
+                break;
+            }
+            budget -= tokens;
+            kept.add(lines.get(i));
+        }
+        Collections.reverse(kept);
+        return kept;
+    }
+
+    private static List<String> questionLines(List<AiMessage> messages) {
+        return messages.stream()
+            .filter(message -> message.getRole() == AiMessageRole.USER)
+            .map(message -> "- " + excerpt(message.getContent()))
+            .toList();
+    }
+
+    private static List<String> storedSummaryLines(AiConversation conversation) {
+        String summary = conversation.getSummary();
+        return summary == null || summary.isBlank() ? List.of() : List.of(summary.split("\n"));
+    }
+
+    private static String summaryHeading(int olderCount) {
+        return "Summary of " + olderCount + " earlier messages in this conversation. The user previously asked:";
+    }
+
+    private int checkpointThreshold() {
+        return Math.max(1, properties.getMaxHistoryMessages()) + Math.max(0, properties.getCheckpointInterval());
+    }
+
+    private static long checkpointOf(AiConversation conversation) {
+        Long through = conversation.getSummarizedThroughId();
+        return through == null ? 0L : through;
+    }
+
+    /**
+     * Between checkpoints at most {@code maxHistoryMessages + checkpointInterval} messages follow the
+     * checkpoint, plus the question and reply of the exchange in progress.
+     */
+    private int tailLimit() {
+        return checkpointThreshold() + 2;
+    }
+
+    private static String excerpt(String content) {
+        String flattened = content.strip().replaceAll("\\s+", " ");
+        return flattened.length() <= SUMMARY_EXCERPT_CHARS
+            ? flattened
+            : flattened.substring(0, SUMMARY_EXCERPT_CHARS - 3) + "...";
+    }
+
+    private static int messageTokens(String content) {
+        return estimateTokens(content) + MESSAGE_OVERHEAD_TOKENS;
+    }
+
+    private static DistributionSummary promptTokens(MeterRegistry meterRegistry, String part) {
+        return DistributionSummary.builder("ai.prompt.tokens")
+            .description("Estimated prompt tokens sent to the model per request")
+            .baseUnit("tokens")
+            .tag("part", part)
+            .register(meterRegistry);
+    }
+}
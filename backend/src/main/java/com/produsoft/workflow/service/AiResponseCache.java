@@ -0,0 +1,97 @@
+package com.produsoft.workflow.service;
+
+import com.produsoft.workflow.config.AiResponseCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers to operations questions, keyed on the normalized question text. Every entry belongs to the
+ * {@link AiContextService#fingerprint() context fingerprint} it was answered under; once the workflow data
+ * changes the fingerprint moves on and all earlier answers are dropped together. Within a fingerprint entries
+ * are evicted least recently used first, bounded by count and by total answer length. Entries are shared by all
+ * conversations and users, so callers must only cache answers whose prompt carried no conversation history.
+ */
+@Component
+public class AiResponseCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\s?!.]+$");
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxChars;
+    private final Map<String, String> answers = new LinkedHashMap<>(16, 0.75f, true);
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private long fingerprint = Long.MIN_VALUE;
+    private long totalChars;
+
+    public AiResponseCache(AiResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.maxEntries = Math.max(1, properties.getMaxEntries());
+        this.maxChars = Math.max(1, properties.getMaxChars());
+        this.hits = Counter.builder("ai.response.cache.requests")
+            .description("AI questions looked up in the response cache")
+            .tag("result", "hit")
+            .register(meterRegistry);
+        this.misses = Counter.builder("ai.response.cache.requests")
+            .description("AI questions looked up in the response cache")
+            .tag("result", "miss")
+            .register(meterRegistry);
+        this.evictions = Counter.builder("ai.response.cache.evictions")
+            .description("Cached AI answers evicted to stay within the size limits")
+            .register(meterRegistry);
+        Gauge.builder("ai.response.cache.size", this, AiResponseCache::size)
+            .description("AI answers currently cached")
+            .register(meterRegistry);
+    }
+
+    public Optional<String> get(String question, long contextFingerprint) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String answer;
+        synchronized (this) {
+            answer = contextFingerprint == fingerprint ? answers.get(normalize(question)) : null;
+        }
+        (answer == null ? misses : hits).increment();
+        return Optional.ofNullable(answer);
+    }
+
+    public synchronized void put(String question, long contextFingerprint, String answer) {
+        if (!enabled || contextFingerprint < fingerprint || answer.length() > maxChars) {
+            return;
+        }
+        if (contextFingerprint > fingerprint) {
+            answers.clear();
+            totalChars = 0;
+            fingerprint = contextFingerprint;
+        }
+        String previous = answers.put(normalize(question), answer);
+        totalChars += answer.length() - (previous == null ? 0 : previous.length());
+        Iterator<String> eldest = answers.values().iterator();
+        while (answers.size() > maxEntries || totalChars > maxChars) {
+            totalChars -= eldest.next().length();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    public synchronized int size() {
+        return answers.size();
+    }
+
+    static String normalize(String question) {
+        String collapsed = WHITESPACE.matcher(question.strip().toLowerCase(Locale.ROOT)).replaceAll(" ");
+        return TRAILING_PUNCTUATION.matcher(collapsed).replaceAll("");
+    }
+}
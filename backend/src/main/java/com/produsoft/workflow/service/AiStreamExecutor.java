@@ -0,0 +1,99 @@
+package com.produsoft.workflow.service;
+
+import com.produsoft.workflow.config.AiStreamingProperties;
+import com.produsoft.workflow.exception.AiCapacityException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs AI response streams, which block on the model's HTTP response for the whole generation, off the
+ * common pool. At most {@code maxConcurrentStreams} run at once; up to {@code maxQueuedStreams} more wait
+ * for a slot, and anything beyond that is rejected up front with {@link AiCapacityException}.
+ * Waiting happens on the stream's own (by default virtual) thread, so queued streams hold no carrier thread.
+ * A stream abandoned while waiting (the executor is shutting down) is handed to its {@code onAbandoned}
+ * callback so the caller can still close the response.
+ */
+@Component
+public class AiStreamExecutor {
+
+    private final ExecutorService executor;
+    private final Semaphore slots;
+    private final int capacity;
+    private final AtomicInteger admitted = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Counter rejected;
+
+    public AiStreamExecutor(AiStreamingProperties properties, MeterRegistry meterRegistry) {
+        int maxConcurrent = Math.max(1, properties.getMaxConcurrentStreams());
+        this.slots = new Semaphore(maxConcurrent, true);
+        this.capacity = maxConcurrent + Math.max(0, properties.getMaxQueuedStreams());
+        this.executor = properties.isVirtualThreads()
+            ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ai-stream-", 0).factory())
+            : Executors.newThreadPerTaskExecutor(Thread.ofPlatform().name("ai-stream-", 0).daemon(true).factory());
+
+        Gauge.builder("ai.stream.active", active, AtomicInteger::get)
+            .description("AI responses currently being streamed")
+            .register(meterRegistry);
+        Gauge.builder("ai.stream.queued", this, AiStreamExecutor::queued)
+            .description("AI streams admitted and waiting for a free slot")
+            .register(meterRegistry);
+        this.rejected = Counter.builder("ai.stream.rejected")
+            .description("AI streams rejected because the stream queue was full")
+            .register(meterRegistry);
+    }
+
+    public void submit(Runnable stream, Consumer<Exception> onAbandoned) {
+        if (admitted.incrementAndGet() > capacity) {
+            admitted.decrementAndGet();
+            rejected.increment();
+            throw new AiCapacityException("The assistant is busy right now. Please try again in a moment.");
+        }
+        try {
+            executor.execute(() -> run(stream, onAbandoned));
+        } catch (RejectedExecutionException ex) {
+            admitted.decrementAndGet();
+            throw new AiCapacityException("The assistant is shutting down.");
+        }
+    }
+
+    public int active() {
+        return active.get();
+    }
+
+    public int queued() {
+        return Math.max(0, admitted.get() - active.get());
+    }
+
+    private void run(Runnable stream, Consumer<Exception> onAbandoned) {
+        try {
+            slots.acquire();
+        } catch (InterruptedException ex) {
+            admitted.decrementAndGet();
+            Thread.currentThread().interrupt();
+            onAbandoned.accept(new AiCapacityException("The assistant is shutting down."));
+            return;
+        }
+        active.incrementAndGet();
+        try {
+            stream.run();
+        } finally {
+            active.decrementAndGet();
+            slots.release();
+            admitted.decrementAndGet();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
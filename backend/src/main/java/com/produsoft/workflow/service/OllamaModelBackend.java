@@ -0,0 +1,328 @@
+package com.produsoft.workflow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.produsoft.workflow.config.AiStreamingProperties;
+import com.produsoft.workflow.config.OllamaClientProperties;
+import com.produsoft.workflow.dto.AiChatRequest;
+import com.produsoft.workflow.dto.AiChatResponse;
+import com.produsoft.workflow.exception.AiCapacityException;
+import com.produsoft.workflow.exception.AiClientException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Model backend for Ollama's {@code /api/chat}, selected by {@code app.ai.backend=ollama} (the default). Calls
+ * go through one shared HTTP/2-capable client, so plain and streamed chats reuse the same connections. Calls
+ * are guarded by a {@link AiCircuitBreaker circuit breaker}, non-streamed calls also by a bulkhead and an
+ * overall timeout, and may be hedged with a second request when slow. Upstream latency is recorded in
+ * {@code ai.upstream.requests}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.ai", name = "backend", havingValue = "ollama", matchIfMissing = true)
+public class OllamaModelBackend implements AiModelBackend {
+
+    private static final String CHAT_PATH = "/api/chat";
+
+    private final OllamaClientProperties properties;
+    private final AiStreamingProperties streamingProperties;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+    private final Semaphore bulkhead;
+    private final AiCircuitBreaker circuitBreaker;
+    private final MeterRegistry meterRegistry;
+    private final Counter circuitRejections;
+    private final Counter bulkheadRejections;
+    private final Counter hedges;
+
+    public OllamaModelBackend(OllamaClientProperties properties,
+                              AiStreamingProperties streamingProperties,
+                              ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.streamingProperties = streamingProperties;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .connectTimeout(properties.getConnectTimeout())
+            .build();
+        this.bulkhead = new Semaphore(Math.max(1, properties.getMaxConcurrentRequests()));
+        this.circuitBreaker = new AiCircuitBreaker(
+            properties.getCircuitFailureThreshold(), properties.getCircuitOpenDuration());
+
+        Gauge.builder("ai.upstream.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+            .description("State of the circuit around the model API: 0 closed, 1 half-open, 2 open")
+            .register(meterRegistry);
+        this.circuitRejections = rejections(meterRegistry, "circuit_open");
+        this.bulkheadRejections = rejections(meterRegistry, "bulkhead_full");
+        this.hedges = Counter.builder("ai.upstream.hedges")
+            .description("Second requests sent because the first non-streamed chat was slow to answer")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public AiChatResponse chat(AiChatRequest request) {
+        HttpRequest httpRequest = chatRequest(request, false)
+            .timeout(properties.getRequestTimeout())
+            .build();
+        if (!bulkhead.tryAcquire()) {
+            bulkheadRejections.increment();
+            throw new AiCapacityException("The assistant is busy right now. Please try again in a moment.");
+        }
+        try {
+            acquireCircuit();
+            Timer.Sample sample = Timer.start(meterRegistry);
+            HttpResponse<String> response;
+            try {
+                response = sendHedged(httpRequest);
+            } catch (AiClientException ex) {
+                sample.stop(upstreamTimer("chat", "error"));
+                circuitBreaker.onFailure();
+                throw ex;
+            }
+            sample.stop(upstreamTimer("chat", isFailure(response.statusCode()) ? "error" : "success"));
+            recordStatus(response.statusCode());
+            if (response.statusCode() >= 400) {
+                throw new AiClientException("Ollama API error: " + response.body());
+            }
+            return toChatResponse(response.body());
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Lines are decoded as they arrive and handed to the returned {@link AiChatStream}.
+     */
+    @Override
+    public AiChatStream openStream(AiChatRequest request) {
+        HttpRequest httpRequest = chatRequest(request, true)
+            .timeout(properties.getStreamResponseTimeout())
+            .build();
+        acquireCircuit();
+
+        AiChatStream stream = new AiChatStream(
+            objectMapper,
+            streamingProperties.getUpstreamWindow(),
+            streamingProperties.getFrameMaxChars(),
+            streamingProperties.getFrameInterval());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        AtomicBoolean answered = new AtomicBoolean();
+        // The circuit only judges whether the model started answering; failures mid-stream surface to the caller.
+        // Error responses are read whole so their body can be reported; successful ones are fed line by line.
+        HttpResponse.BodyHandler<String> bodyHandler = responseInfo -> {
+            answered.set(true);
+            int statusCode = responseInfo.statusCode();
+            sample.stop(upstreamTimer("stream", isFailure(statusCode) ? "error" : "success"));
+            recordStatus(statusCode);
+            return statusCode >= 400
+                ? HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8)
+                : HttpResponse.BodySubscribers.fromLineSubscriber(stream, subscriber -> null, StandardCharsets.UTF_8, null);
+        };
+        CompletableFuture<HttpResponse<String>> exchange = httpClient.sendAsync(httpRequest, bodyHandler);
+        exchange.whenComplete((response, error) -> {
+            if (error == null || answered.get()) {
+                return;
+            }
+            sample.stop(upstreamTimer("stream", "error"));
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof CancellationException) {
+                circuitBreaker.onIgnored();
+            } else {
+                circuitBreaker.onFailure();
+            }
+        });
+        stream.attach(exchange);
+        return stream;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        httpClient.shutdownNow();
+    }
+
+    /**
+     * Sends the request and, when hedging is enabled and no answer has arrived within the hedge delay, sends
+     * it once more. The first usable response wins and the other exchange is cancelled.
+     */
+    private HttpResponse<String> sendHedged(HttpRequest httpRequest) {
+        CompletableFuture<HttpResponse<String>> result = new CompletableFuture<>();
+        List<CompletableFuture<HttpResponse<String>>> attempts = new CopyOnWriteArrayList<>();
+        AtomicInteger outstanding = new AtomicInteger(1);
+        result.whenComplete((response, error) -> attempts.forEach(attempt -> attempt.cancel(true)));
+        attempt(httpRequest, result, attempts, outstanding);
+
+        Duration hedgeDelay = properties.getHedgeDelay();
+        if (hedgeDelay != null && !hedgeDelay.isZero() && !hedgeDelay.isNegative()) {
+            CompletableFuture.delayedExecutor(hedgeDelay.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+                if (!result.isDone()) {
+                    outstanding.incrementAndGet();
+                    hedges.increment();
+                    attempt(httpRequest, result, attempts, outstanding);
+                }
+            });
+        }
+
+        try {
+            return result.get(properties.getRequestTimeout().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            result.cancel(true);
+            throw new AiClientException("Ollama did not answer within " + properties.getRequestTimeout() + ".", ex);
+        } catch (ExecutionException ex) {
+            throw new AiClientException("Failed to call Ollama API", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new AiClientException("Interrupted while calling Ollama API", ex);
+        }
+    }
+
+    private void attempt(HttpRequest httpRequest,
+                         CompletableFuture<HttpResponse<String>> result,
+                         List<CompletableFuture<HttpResponse<String>>> attempts,
+                         AtomicInteger outstanding) {
+        CompletableFuture<HttpResponse<String>> attempt =
+            httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        attempts.add(attempt);
+        if (result.isDone()) {
+            attempt.cancel(true);
+            return;
+        }
+        attempt.whenComplete((response, error) -> {
+            if (error == null && !isFailure(response.statusCode())) {
+                result.complete(response);
+            } else if (outstanding.decrementAndGet() == 0) {
+                // Every attempt failed; report the last one.
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(response);
+                }
+            }
+        });
+    }
+
+    private HttpRequest.Builder chatRequest(AiChatRequest request, boolean stream) {
+        Map<String, Object> payload = Map.of(
+            "model", resolveModel(request.model()),
+            "messages", request.messages().stream()
+                .map(message -> Map.of(
+                    "role", message.role(),
+                    "content", message.content()))
+                .toList(),
+            "stream", stream
+        );
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(payload);
+        } catch (IOException ex) {
+            throw new AiClientException("Failed to serialize Ollama request payload.", ex);
+        }
+        return HttpRequest.newBuilder()
+            .uri(URI.create(properties.getHost() + CHAT_PATH))
+            .header(HttpHeaders.AUTHORIZATION, "Bearer " + resolveApiKeyOrThrow())
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+    }
+
+    private AiChatResponse toChatResponse(String body) {
+        OllamaChatResponse response;
+        try {
+            response = objectMapper.readValue(body, OllamaChatResponse.class);
+        } catch (JsonProcessingException ex) {
+            throw new AiClientException("Received malformed response from Ollama.", ex);
+        }
+        if (response == null || response.message() == null || !StringUtils.hasText(response.message().content())) {
+            throw new AiClientException("Received empty response from Ollama.");
+        }
+        return new AiChatResponse(
+            response.model(),
+            response.message().role(),
+            response.message().content());
+    }
+
+    private void acquireCircuit() {
+        if (!circuitBreaker.tryAcquire()) {
+            circuitRejections.increment();
+            throw new AiCapacityException("The assistant is temporarily unavailable. Please try again shortly.");
+        }
+    }
+
+    private void recordStatus(int statusCode) {
+        if (isFailure(statusCode)) {
+            circuitBreaker.onFailure();
+        } else if (statusCode >= 400) {
+            circuitBreaker.onIgnored();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    /**
+     * Statuses that say the model is unhealthy or overloaded, as opposed to a problem with the request.
+     */
+    private static boolean isFailure(int statusCode) {
+        return statusCode >= 500 || statusCode == 429;
+    }
+
+    private Timer upstreamTimer(String mode, String outcome) {
+        return Timer.builder("ai.upstream.requests")
+            .description("Time until the model API answered; for streams, until the response started")
+            .tag("mode", mode)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+
+    private static Counter rejections(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("ai.upstream.rejected")
+            .description("Model API calls refused before reaching the network")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    private String resolveModel(String requestedModel) {
+        return StringUtils.hasText(requestedModel) ? requestedModel : properties.getDefaultModel();
+    }
+
+    private record OllamaChatResponse(String model, OllamaMessage message, boolean done) {
+    }
+
+    private record OllamaMessage(String role, String content) {
+    }
+
+    private String resolveApiKeyOrThrow() {
+        return properties.resolveApiKey()
+            .orElseThrow(() -> new AiClientException("""
+                Ollama access is not configured. Set the OLLAMA_API_KEY environment variable or app.ai.ollama.api-key property."""
+                .trim()));
+    }
+}
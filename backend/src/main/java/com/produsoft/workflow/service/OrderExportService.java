@@ -0,0 +1,178 @@
+package com.produsoft.workflow.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.repository.OrderExportRow;
+import com.produsoft.workflow.repository.OrderRepository;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes every order with its stage history straight from a forward-only database cursor to the
+ * response stream. Only the current order's rows are in memory at any time, so the cost is constant
+ * however many orders are exported. Checklist state is not part of the export.
+ */
+@Service
+public class OrderExportService {
+
+    private static final List<String> CSV_COLUMNS = List.of(
+        "orderId", "orderNumber", "priority", "currentStage", "overallState", "createdAt", "updatedAt", "notes",
+        "stage", "state", "assignee", "claimedAt", "startedAt", "completedAt", "serviceTimeMinutes",
+        "stageNotes", "exceptionReason", "supervisorNotes", "approvedBy", "stageUpdatedAt");
+
+    private final OrderRepository orderRepository;
+    private final ObjectWriter jsonWriter;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public OrderExportService(OrderRepository orderRepository,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+        // The generator buffers across orders and flushes once at the end, instead of one tiny chunk per order.
+        this.jsonWriter = objectMapper.writerFor(ExportedOrder.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    public void export(OrderFileFormat format, OutputStream out) throws IOException {
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<OrderExportRow> rows = orderRepository.streamExportRows()) {
+                    if (format == OrderFileFormat.CSV) {
+                        writeCsv(rows.iterator(), out);
+                    } else {
+                        writeNdjson(rows.iterator(), out);
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private void writeNdjson(Iterator<OrderExportRow> rows, OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Records are separated by the explicit newline below, not Jackson's default root separator.
+            generator.setRootValueSeparator(null);
+            OrderExportRow first = rows.hasNext() ? rows.next() : null;
+            while (first != null) {
+                List<ExportedStage> stages = new ArrayList<>(StageType.values().length);
+                stages.add(ExportedStage.of(first));
+                OrderExportRow next = null;
+                while (rows.hasNext()) {
+                    OrderExportRow row = rows.next();
+                    if (!row.orderId().equals(first.orderId())) {
+                        next = row;
+                        break;
+                    }
+                    stages.add(ExportedStage.of(row));
+                }
+                jsonWriter.writeValue(generator, ExportedOrder.of(first, stages));
+                generator.writeRaw('\n');
+                first = next;
+            }
+            generator.flush();
+        }
+    }
+
+    private void writeCsv(Iterator<OrderExportRow> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writeCsvLine(writer, CSV_COLUMNS);
+        while (rows.hasNext()) {
+            OrderExportRow row = rows.next();
+            List<Object> values = List.of(
+                row.orderId(), nullable(row.orderNumber()), nullable(row.priority()), nullable(row.currentStage()),
+                nullable(row.overallState()), nullable(row.createdAt()), nullable(row.updatedAt()), nullable(row.notes()),
+                nullable(row.stage()), nullable(row.state()), nullable(row.assignee()), nullable(row.claimedAt()),
+                nullable(row.startedAt()), nullable(row.completedAt()), nullable(row.serviceTimeMinutes()),
+                nullable(row.stageNotes()), nullable(row.exceptionReason()), nullable(row.supervisorNotes()),
+                nullable(row.approvedBy()), nullable(row.stageUpdatedAt()));
+            writeCsvLine(writer, values);
+        }
+        writer.flush();
+    }
+
+    private static void writeCsvLine(Writer writer, List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvField(values.get(i).toString()));
+        }
+        writer.write("\r\n");
+    }
+
+    private static Object nullable(Object value) {
+        return value == null ? "" : value;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    record ExportedOrder(
+        Long id,
+        String orderNumber,
+        Integer priority,
+        StageType currentStage,
+        StageState overallState,
+        Instant createdAt,
+        Instant updatedAt,
+        String notes,
+        List<ExportedStage> stages
+    ) {
+
+        static ExportedOrder of(OrderExportRow row, List<ExportedStage> stages) {
+            return new ExportedOrder(row.orderId(), row.orderNumber(), row.priority(), row.currentStage(),
+                row.overallState(), row.createdAt(), row.updatedAt(), row.notes(), stages);
+        }
+    }
+
+    record ExportedStage(
+        StageType stage,
+        StageState state,
+        String assignee,
+        Instant claimedAt,
+        Instant startedAt,
+        Instant completedAt,
+        Long serviceTimeMinutes,
+        String notes,
+        String exceptionReason,
+        String supervisorNotes,
+        String approvedBy,
+        Instant updatedAt
+    ) {
+
+        static ExportedStage of(OrderExportRow row) {
+            return new ExportedStage(row.stage(), row.state(), row.assignee(), row.claimedAt(), row.startedAt(),
+                row.completedAt(), row.serviceTimeMinutes(), row.stageNotes(), row.exceptionReason(),
+                row.supervisorNotes(), row.approvedBy(), row.stageUpdatedAt());
+        }
+    }
+}
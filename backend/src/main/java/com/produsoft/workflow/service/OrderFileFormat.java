@@ -0,0 +1,28 @@
+package com.produsoft.workflow.service;
+
+import java.util.Locale;
+import org.springframework.http.MediaType;
+
+public enum OrderFileFormat {
+    NDJSON,
+    CSV;
+
+    public static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    public static final String CSV_MEDIA_TYPE = "text/csv";
+
+    /**
+     * Resolves the format from an explicit {@code format} parameter, falling back to the request content type.
+     */
+    public static OrderFileFormat resolve(String format, String contentType) {
+        if (format != null && !format.isBlank()) {
+            return OrderFileFormat.valueOf(format.trim().toUpperCase(Locale.ROOT));
+        }
+        if (contentType != null) {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            if (mediaType.isCompatibleWith(MediaType.parseMediaType(CSV_MEDIA_TYPE))) {
+                return CSV;
+            }
+        }
+        return NDJSON;
+    }
+}
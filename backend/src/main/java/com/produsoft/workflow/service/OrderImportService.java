@@ -0,0 +1,244 @@
+package com.produsoft.workflow.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.produsoft.workflow.domain.Order;
+import com.produsoft.workflow.dto.BulkCreateOrdersResponse;
+import com.produsoft.workflow.dto.CreateOrderRequest;
+import com.produsoft.workflow.dto.OrderImportResponse;
+import com.produsoft.workflow.dto.OrderMapper;
+import com.produsoft.workflow.event.OrderChangedEvent;
+import com.produsoft.workflow.event.WorkflowAction;
+import com.produsoft.workflow.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.transaction.Transactional;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Bulk order ingestion, either from a JSON request or streamed from an NDJSON/CSV file. Ids come from
+ * pooled sequences, so Hibernate can group the order and stage status INSERTs into JDBC batches; the
+ * persistence context is flushed and cleared every batch to keep dirty checking flat. The change event
+ * published per order is held until its transaction commits, so memory grows with the orders in one
+ * transaction: a whole {@code /bulk} request (hence its size cap), or one chunk of a file import.
+ */
+@Service
+@Transactional
+public class OrderImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderImportService.class);
+
+    private static final int EXISTENCE_CHECK_CHUNK = 1000;
+
+    private final OrderRepository orderRepository;
+    private final OrderMapper mapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate chunkTransaction;
+    private final int batchSize;
+    private final int commitSize;
+    private final int maxReportedRejects;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public OrderImportService(OrderRepository orderRepository,
+                              OrderMapper mapper,
+                              ApplicationEventPublisher eventPublisher,
+                              ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize,
+                              @Value("${app.workflow.import.commit-size:1000}") int commitSize,
+                              @Value("${app.workflow.import.max-reported-rejects:100}") int maxReportedRejects) {
+        this.orderRepository = orderRepository;
+        this.mapper = mapper;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.batchSize = Math.max(1, batchSize);
+        this.commitSize = Math.max(1, commitSize);
+        this.maxReportedRejects = Math.max(0, maxReportedRejects);
+    }
+
+    /**
+     * Creates every order whose number is neither repeated earlier in the request nor already stored.
+     * Skipped order numbers are reported rather than failing the whole import. Runs in one transaction,
+     * so callers must keep the request within the {@code BulkCreateOrdersRequest} cap.
+     */
+    public BulkCreateOrdersResponse createOrders(List<CreateOrderRequest> requests) {
+        long started = System.nanoTime();
+        Map<String, CreateOrderRequest> unique = new LinkedHashMap<>();
+        List<String> skipped = new ArrayList<>();
+        for (CreateOrderRequest request : requests) {
+            if (unique.putIfAbsent(request.orderNumber(), request) != null) {
+                skipped.add(request.orderNumber());
+            }
+        }
+        Set<String> existing = findExisting(unique.keySet());
+        unique.keySet().stream().filter(existing::contains).forEach(skipped::add);
+        unique.keySet().removeAll(existing);
+
+        persist(unique.values());
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return new BulkCreateOrdersResponse(requests.size(), unique.size(), skipped, elapsedMillis);
+    }
+
+    /**
+     * Streams an NDJSON or CSV body into the database. Records are parsed one line at a time and
+     * committed in chunks of {@code app.workflow.import.commit-size} orders, each chunk in its own
+     * transaction after a single existence query, so neither the file nor the whole import is held in
+     * memory or in one transaction. Order numbers seen earlier in the file are caught by that query
+     * because their chunk has already committed. If a chunk still fails to commit (say a concurrent
+     * insert of the same order number) its records are retried one by one and only the failing ones are rejected.
+     */
+    @Transactional(Transactional.TxType.NOT_SUPPORTED)
+    public OrderImportResponse importOrders(Reader body, OrderFileFormat format) throws IOException {
+        long started = System.nanoTime();
+        ImportProgress progress = new ImportProgress(maxReportedRejects);
+        OrderRecordReader records = new OrderRecordReader(body, format, objectMapper);
+        Map<String, OrderRecordReader.ParsedRecord> chunk = new LinkedHashMap<>();
+        OrderRecordReader.ParsedRecord record;
+        while ((record = records.next()) != null) {
+            if (!record.valid()) {
+                progress.reject(record, record.error());
+                continue;
+            }
+            if (chunk.putIfAbsent(record.orderNumber(), record) != null) {
+                progress.duplicate(record);
+                continue;
+            }
+            if (chunk.size() == commitSize) {
+                commitChunk(chunk, progress);
+                chunk.clear();
+                log.debug("Order import progress: {} lines read, {} orders created", records.linesRead(), progress.created);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            commitChunk(chunk, progress);
+        }
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        log.info("Imported {} orders from {} {} lines in {} ms ({} duplicates, {} rejected)",
+            progress.created, records.linesRead(), format, elapsedMillis, progress.duplicates, progress.rejected);
+        return new OrderImportResponse(records.linesRead(), progress.created, progress.duplicates, progress.rejected,
+            List.copyOf(progress.rejects), progress.rejectsTruncated(), elapsedMillis);
+    }
+
+    private void commitChunk(Map<String, OrderRecordReader.ParsedRecord> chunk, ImportProgress progress) {
+        Set<String> existing = new HashSet<>(orderRepository.findExistingOrderNumbers(chunk.keySet()));
+        List<OrderRecordReader.ParsedRecord> fresh = new ArrayList<>(chunk.size());
+        for (OrderRecordReader.ParsedRecord record : chunk.values()) {
+            if (existing.contains(record.orderNumber())) {
+                progress.duplicate(record);
+            } else {
+                fresh.add(record);
+            }
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+        try {
+            chunkTransaction.executeWithoutResult(status ->
+                persist(fresh.stream().map(OrderRecordReader.ParsedRecord::request).toList()));
+            progress.created += fresh.size();
+        } catch (RuntimeException ex) {
+            log.warn("Order import chunk of {} failed ({}); retrying records individually", fresh.size(), ex.getMessage());
+            for (OrderRecordReader.ParsedRecord record : fresh) {
+                try {
+                    chunkTransaction.executeWithoutResult(status -> persist(List.of(record.request())));
+                    progress.created++;
+                } catch (RuntimeException single) {
+                    progress.reject(record, "Could not be stored: " + NestedExceptionUtils.getMostSpecificCause(single).getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Persists new orders with their stage statuses, flushing and clearing every JDBC batch.
+     */
+    private void persist(Collection<CreateOrderRequest> requests) {
+        Instant now = Instant.now();
+        int pending = 0;
+        for (CreateOrderRequest request : requests) {
+            Order order = OrderWorkflowService.newOrder(request, now);
+            entityManager.persist(order);
+            eventPublisher.publishEvent(new OrderChangedEvent(
+                WorkflowAction.CREATED, mapper.toOrderResponse(order), Map.of(), null));
+            if (++pending == batchSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Set<String> findExisting(Set<String> orderNumbers) {
+        Set<String> existing = new HashSet<>();
+        List<String> chunk = new ArrayList<>(EXISTENCE_CHECK_CHUNK);
+        for (String orderNumber : orderNumbers) {
+            chunk.add(orderNumber);
+            if (chunk.size() == EXISTENCE_CHECK_CHUNK) {
+                existing.addAll(orderRepository.findExistingOrderNumbers(chunk));
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            existing.addAll(orderRepository.findExistingOrderNumbers(chunk));
+        }
+        return existing;
+    }
+
+    private static final class ImportProgress {
+
+        private final int maxReportedRejects;
+        private final List<OrderImportResponse.Reject> rejects = new ArrayList<>();
+        private long created;
+        private long duplicates;
+        private long rejected;
+
+        private ImportProgress(int maxReportedRejects) {
+            this.maxReportedRejects = maxReportedRejects;
+        }
+
+        private void duplicate(OrderRecordReader.ParsedRecord record) {
+            duplicates++;
+            report(record, "Duplicate order number");
+        }
+
+        private void reject(OrderRecordReader.ParsedRecord record, String reason) {
+            rejected++;
+            report(record, reason);
+        }
+
+        private void report(OrderRecordReader.ParsedRecord record, String reason) {
+            if (rejects.size() < maxReportedRejects) {
+                rejects.add(new OrderImportResponse.Reject(record.line(), record.orderNumber(), reason));
+            }
+        }
+
+        private boolean rejectsTruncated() {
+            return duplicates + rejected > rejects.size();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.produsoft.workflow.service;
+
+import com.produsoft.workflow.domain.Order;
+import java.util.List;
+
+public record OrderPage(
+    List<Order> orders,
+    String nextCursor
+) {
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+}
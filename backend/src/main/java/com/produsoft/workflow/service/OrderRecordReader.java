@@ -0,0 +1,192 @@
+package com.produsoft.workflow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.produsoft.workflow.dto.CreateOrderRequest;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pulls order records one line at a time from an NDJSON or CSV body, so an import never holds more
+ * than the current line in memory. NDJSON lines are objects with {@code orderNumber}, {@code priority}
+ * and {@code notes}; CSV needs a header row naming those columns (quoted fields with {@code ""}
+ * escapes are supported, embedded line breaks are not). Malformed lines come back as rejected records
+ * instead of aborting the import.
+ */
+class OrderRecordReader {
+
+    static final int MAX_ORDER_NUMBER_LENGTH = 255;
+    static final int MAX_NOTES_LENGTH = 1024;
+
+    record ParsedRecord(long line, String orderNumber, CreateOrderRequest request, String error) {
+
+        boolean valid() {
+            return error == null;
+        }
+    }
+
+    private final BufferedReader reader;
+    private final OrderFileFormat format;
+    private final ObjectMapper objectMapper;
+    private Map<String, Integer> csvColumns;
+    private long line;
+
+    OrderRecordReader(Reader reader, OrderFileFormat format, ObjectMapper objectMapper) {
+        this.reader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader, 64 * 1024);
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    long linesRead() {
+        return line;
+    }
+
+    /**
+     * Returns the next record, or {@code null} at the end of the input. Blank lines are skipped.
+     */
+    ParsedRecord next() throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            if (format == OrderFileFormat.CSV && csvColumns == null) {
+                ParsedRecord headerError = readCsvHeader(text);
+                if (headerError != null) {
+                    return headerError;
+                }
+                continue;
+            }
+            return format == OrderFileFormat.CSV ? parseCsv(text) : parseJson(text);
+        }
+        return null;
+    }
+
+    private ParsedRecord parseJson(String text) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException ex) {
+            return rejected(null, "Malformed JSON: " + ex.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            return rejected(null, "Expected a JSON object");
+        }
+        JsonNode priority = node.get("priority");
+        if (priority != null && !priority.isNull() && !priority.canConvertToInt()) {
+            return rejected(textValue(node.get("orderNumber")), "Priority must be an integer");
+        }
+        return validated(
+            textValue(node.get("orderNumber")),
+            priority == null || priority.isNull() ? null : priority.asText(),
+            textValue(node.get("notes")));
+    }
+
+    private ParsedRecord readCsvHeader(String text) {
+        List<String> header = splitCsv(text);
+        if (header == null) {
+            return rejected(null, "Malformed CSV header");
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(normalizeColumn(header.get(i)), i);
+        }
+        if (!columns.containsKey("ordernumber")) {
+            return rejected(null, "CSV header must include an orderNumber column");
+        }
+        csvColumns = columns;
+        return null;
+    }
+
+    private ParsedRecord parseCsv(String text) {
+        List<String> fields = splitCsv(text);
+        if (fields == null) {
+            return rejected(null, "Malformed CSV line: unbalanced quotes");
+        }
+        return validated(column(fields, "ordernumber"), column(fields, "priority"), column(fields, "notes"));
+    }
+
+    private ParsedRecord validated(String orderNumber, String priorityText, String notes) {
+        String trimmedNumber = orderNumber == null ? null : orderNumber.trim();
+        if (trimmedNumber == null || trimmedNumber.isEmpty()) {
+            return rejected(null, "Order number is required");
+        }
+        if (trimmedNumber.length() > MAX_ORDER_NUMBER_LENGTH) {
+            return rejected(trimmedNumber.substring(0, 64), "Order number is longer than " + MAX_ORDER_NUMBER_LENGTH + " characters");
+        }
+        Integer priority = null;
+        if (priorityText != null && !priorityText.isBlank()) {
+            try {
+                priority = Integer.valueOf(priorityText.trim());
+            } catch (NumberFormatException ex) {
+                return rejected(trimmedNumber, "Priority must be an integer");
+            }
+        }
+        String normalizedNotes = notes == null || notes.isBlank() ? null : notes;
+        if (normalizedNotes != null && normalizedNotes.length() > MAX_NOTES_LENGTH) {
+            return rejected(trimmedNumber, "Notes are longer than " + MAX_NOTES_LENGTH + " characters");
+        }
+        return new ParsedRecord(line, trimmedNumber, new CreateOrderRequest(trimmedNumber, priority, normalizedNotes), null);
+    }
+
+    private ParsedRecord rejected(String orderNumber, String reason) {
+        return new ParsedRecord(line, orderNumber, null, reason);
+    }
+
+    private String column(List<String> fields, String name) {
+        Integer index = csvColumns.get(name);
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    private static String textValue(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    private static String normalizeColumn(String name) {
+        return name.trim().replace("_", "").replace("-", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Splits one RFC 4180 record. Returns {@code null} when a quoted field is left open.
+     */
+    static List<String> splitCsv(String text) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
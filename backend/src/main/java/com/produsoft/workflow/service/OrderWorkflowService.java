@@ -1,33 +1,50 @@
 package com.produsoft.workflow.service;
 
 import com.produsoft.workflow.checklist.StageChecklistService;
+import com.produsoft.workflow.datastructure.LongObjectHashMap;
 import com.produsoft.workflow.domain.Order;
 import com.produsoft.workflow.domain.OrderStageStatus;
 import com.produsoft.workflow.domain.StageState;
 import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.dto.BatchStageActionRequest;
+import com.produsoft.workflow.dto.BatchStageActionResponse;
 import com.produsoft.workflow.dto.CompleteStageRequest;
 import com.produsoft.workflow.dto.UpdateChecklistItemRequest;
 import com.produsoft.workflow.dto.CreateOrderRequest;
 import com.produsoft.workflow.dto.FlagStageExceptionRequest;
+import com.produsoft.workflow.dto.OrderMapper;
+import com.produsoft.workflow.dto.OrderResponse;
+import com.produsoft.workflow.dto.OrderStageStatusResponse;
 import com.produsoft.workflow.dto.ReprioritizeOrderRequest;
-import com.produsoft.workflow.dto.StageSummaryResponse;
 import com.produsoft.workflow.dto.SupervisorDecisionRequest;
 import com.produsoft.workflow.dto.WipSummaryResponse;
+import com.produsoft.workflow.dto.WorkQueueItemResponse;
+import com.produsoft.workflow.event.OrderChangedEvent;
+import com.produsoft.workflow.event.WorkflowAction;
 import com.produsoft.workflow.exception.InvalidStageActionException;
 import com.produsoft.workflow.exception.NotFoundException;
+import com.produsoft.workflow.exception.StageConflictException;
+import com.produsoft.workflow.repository.OrderCursor;
+import com.produsoft.workflow.repository.OrderFilter;
 import com.produsoft.workflow.repository.OrderRepository;
+import com.produsoft.workflow.repository.OrderSpecifications;
+import com.produsoft.workflow.repository.OrderStageRow;
 import com.produsoft.workflow.repository.OrderStageStatusRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.transaction.Transactional;
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -37,13 +54,33 @@ public class OrderWorkflowService {
     private final OrderRepository orderRepository;
     private final OrderStageStatusRepository stageStatusRepository;
     private final StageChecklistService stageChecklistService;
+    private final OrderMapper mapper;
+    private final WorkQueueIndex workQueueIndex;
+    private final WipCounters wipCounters;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<StageType, Counter> claimConflicts = new EnumMap<>(StageType.class);
 
     public OrderWorkflowService(OrderRepository orderRepository,
                                 OrderStageStatusRepository stageStatusRepository,
-                                StageChecklistService stageChecklistService) {
+                                StageChecklistService stageChecklistService,
+                                OrderMapper mapper,
+                                WorkQueueIndex workQueueIndex,
+                                WipCounters wipCounters,
+                                ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry) {
         this.orderRepository = orderRepository;
         this.stageStatusRepository = stageStatusRepository;
         this.stageChecklistService = stageChecklistService;
+        this.mapper = mapper;
+        this.workQueueIndex = workQueueIndex;
+        this.wipCounters = wipCounters;
+        this.eventPublisher = eventPublisher;
+        for (StageType stage : StageType.values()) {
+            claimConflicts.put(stage, Counter.builder("workflow.claim.conflicts")
+                .description("Claims rejected because another operator claimed the stage first")
+                .tag("stage", stage.name())
+                .register(meterRegistry));
+        }
     }
 
     public Order createOrder(CreateOrderRequest request) {
@@ -52,7 +89,15 @@ public class OrderWorkflowService {
                 throw new InvalidStageActionException("Order number already exists: " + request.orderNumber());
             });
 
-        Instant now = Instant.now();
+        Order saved = orderRepository.save(newOrder(request, Instant.now()));
+        publishChange(WorkflowAction.CREATED, saved, StateSnapshot.EMPTY);
+        return saved;
+    }
+
+    /**
+     * Builds a new order with its stage statuses: PREPARATION pending, every later stage blocked.
+     */
+    static Order newOrder(CreateOrderRequest request, Instant now) {
         Order order = new Order();
         order.setOrderNumber(request.orderNumber());
         order.setPriority(request.priority());
@@ -75,11 +120,28 @@ public class OrderWorkflowService {
         }
 
         order.getStages().sort(Comparator.comparingInt(s -> s.getStage().ordinal()));
-        return orderRepository.save(order);
+        return order;
     }
 
-    public List<Order> findAllOrders() {
-        return orderRepository.findAll(Sort.by(Sort.Order.desc("priority"), Sort.Order.asc("createdAt")));
+    public OrderPage findOrders(OrderFilter filter, String cursor, int limit) {
+        Specification<Order> specification = OrderSpecifications.matching(filter);
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                specification = specification.and(OrderSpecifications.after(OrderCursor.decode(cursor)));
+            } catch (IllegalArgumentException ex) {
+                throw new InvalidStageActionException(ex.getMessage());
+            }
+        }
+        List<Order> rows = orderRepository.findListingPage(specification, limit + 1);
+        if (rows.size() <= limit) {
+            return new OrderPage(rows, null);
+        }
+        List<Order> page = rows.subList(0, limit);
+        return new OrderPage(List.copyOf(page), OrderCursor.of(page.get(limit - 1)).encode());
+    }
+
+    public boolean hasOrders() {
+        return orderRepository.count() > 0;
     }
 
     public Order findOrder(Long id) {
@@ -87,74 +149,112 @@ public class OrderWorkflowService {
             .orElseThrow(() -> new NotFoundException("Order not found: " + id));
     }
 
-    public List<OrderStageStatus> fetchQueue(StageType stage, List<StageState> states) {
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public List<WorkQueueItemResponse> fetchQueue(StageType stage, List<StageState> states) {
         List<StageState> effectiveStates = (states == null || states.isEmpty())
             ? List.of(StageState.PENDING, StageState.REWORK, StageState.IN_PROGRESS)
             : states;
-        return stageStatusRepository.findQueueByStageAndStates(stage, effectiveStates);
+        return workQueueIndex.find(stage, effectiveStates)
+            .orElseGet(() -> stageStatusRepository.findQueueByStageAndStates(stage, effectiveStates).stream()
+                .map(mapper::toQueueItem)
+                .toList());
     }
 
-    public OrderStageStatus claimStage(Long orderId, StageType stage, String assignee) {
-        OrderStageStatus status = getStageStatus(orderId, stage);
-        if (!(status.getState() == StageState.PENDING || status.getState() == StageState.REWORK)) {
-            throw new InvalidStageActionException("Stage is not available to claim: " + stage);
+    /**
+     * The claimable order an operator should pick up next at this stage: highest priority, then oldest.
+     */
+    @Transactional(Transactional.TxType.SUPPORTS)
+    public Optional<WorkQueueItemResponse> nextInQueue(StageType stage) {
+        if (workQueueIndex.isReady()) {
+            return workQueueIndex.next(stage);
         }
-        status.markInProgress(assignee);
-        status.setChecklistState(stageChecklistService.initializeState(stage));
-        Order order = status.getOrder();
-        order.setCurrentStage(stage);
-        order.touch();
-        order.setOverallState(StageState.IN_PROGRESS);
-        return status;
+        return stageStatusRepository.findQueueByStageAndStates(stage, List.of(StageState.PENDING, StageState.REWORK))
+            .stream()
+            .findFirst()
+            .map(mapper::toQueueItem);
     }
 
-    public OrderStageStatus completeStage(Long orderId, StageType stage, CompleteStageRequest request) {
-        OrderStageStatus status = getStageStatus(orderId, stage);
-        if (status.getState() != StageState.IN_PROGRESS) {
-            throw new InvalidStageActionException("Stage must be in progress to complete: " + stage);
+    /**
+     * Claims a stage with conditional UPDATEs on the stage state and the order state and version it was
+     * observed in rather than a read-modify-write of the aggregate, so when operators race for the same stage
+     * exactly one wins. The others get a {@link StageConflictException} (409). The order is read once, as
+     * stage rows, and the change event is built from those rows with the claim applied.
+     */
+    public OrderStageStatusResponse claimStage(Long orderId, StageType stage, String assignee) {
+        List<OrderStageRow> rows = stageStatusRepository.findStageRowsByOrderId(orderId);
+        OrderStageRow observed = rows.stream()
+            .filter(row -> row.stage() == stage)
+            .findFirst()
+            .orElseThrow(() -> new NotFoundException("Stage status not found for order %d and stage %s".formatted(orderId, stage)));
+        if (observed.state() == StageState.IN_PROGRESS) {
+            throw new StageConflictException("Stage has already been claimed by another operator: " + stage);
         }
-        if (!stageChecklistService.isChecklistComplete(stage, status.getChecklistState())) {
-            throw new InvalidStageActionException("All required checklist tasks must be completed before closing stage: " + stage);
+        if (!(observed.state() == StageState.PENDING || observed.state() == StageState.REWORK)) {
+            throw new InvalidStageActionException("Stage is not available to claim: " + stage);
         }
-        status.setAssignee(request.assignee());
-        status.markCompleted(request.serviceTimeMinutes(), request.notes());
-        Order order = status.getOrder();
-        order.touch();
-        advanceToNextStage(order, stage);
-        return status;
+        Instant now = Instant.now();
+        Map<String, Boolean> checklist = stageChecklistService.initializeState(stage);
+        if (stageStatusRepository.claimIfInState(orderId, stage, observed.state(), assignee, checklist, now) == 0) {
+            throw claimConflict(stage);
+        }
+        // Throwing rolls the stage claim back with the transaction.
+        if (orderRepository.markStageClaimed(orderId, stage, observed.overallState(), observed.orderVersion(), now) == 0) {
+            throw claimConflict(stage);
+        }
+
+        Map<StageType, StageState> previousStates = new EnumMap<>(StageType.class);
+        rows.forEach(row -> previousStates.put(row.stage(), row.state()));
+        OrderResponse order = mapper.toOrderResponse(rows.stream()
+            .map(row -> row.claimed(stage, assignee, checklist, now))
+            .toList());
+        eventPublisher.publishEvent(new OrderChangedEvent(
+            WorkflowAction.CLAIMED, order, previousStates, observed.overallState()));
+        return order.stages().stream()
+            .filter(status -> status.stage() == stage)
+            .findFirst()
+            .orElseThrow(() -> new IllegalStateException("Missing stage status for " + stage));
+    }
+
+    public OrderStageStatus completeStage(Long orderId, StageType stage, CompleteStageRequest request) {
+        return applyComplete(getStageStatus(orderId, stage), request);
     }
 
     public OrderStageStatus updateChecklistItem(Long orderId, StageType stage, UpdateChecklistItemRequest request) {
-        OrderStageStatus status = getStageStatus(orderId, stage);
-        if (status.getState() != StageState.IN_PROGRESS) {
-            throw new InvalidStageActionException("Checklist can only be updated while stage is in progress: " + stage);
-        }
-        try {
-            var currentState = status.hasChecklistState()
-                ? status.getChecklistState()
-                : stageChecklistService.initializeState(stage);
-            status.setChecklistState(stageChecklistService.updateTask(stage, currentState, request.taskId(), request.completed()));
-        } catch (IllegalArgumentException ex) {
-            throw new InvalidStageActionException(ex.getMessage());
-        }
-        status.setUpdatedAt(Instant.now());
-        Order order = status.getOrder();
-        order.touch();
-        return status;
+        return applyChecklistUpdate(getStageStatus(orderId, stage), request);
     }
 
     public OrderStageStatus flagException(Long orderId, StageType stage, FlagStageExceptionRequest request) {
-        OrderStageStatus status = getStageStatus(orderId, stage);
-        EnumSet<StageState> allowed = EnumSet.of(StageState.IN_PROGRESS, StageState.PENDING, StageState.REWORK);
-        if (!allowed.contains(status.getState())) {
-            throw new InvalidStageActionException("Cannot flag exception for stage in state " + status.getState());
+        return applyFlagException(getStageStatus(orderId, stage), request);
+    }
+
+    /**
+     * Applies a list of operator stage actions in one transaction. Every affected order is loaded with
+     * its stages in a single query, and each action is validated and applied independently: a rejected
+     * action is reported in its result without touching the entities, so the remaining actions still
+     * commit together and are flushed as one JDBC batch.
+     */
+    public BatchStageActionResponse applyBatch(List<BatchStageActionRequest.Action> actions) {
+        Set<Long> orderIds = actions.stream()
+            .map(BatchStageActionRequest.Action::orderId)
+            .collect(Collectors.toSet());
+        LongObjectHashMap<Order> orders = new LongObjectHashMap<>();
+        orderRepository.findAllWithStagesByIdIn(orderIds).forEach(order -> orders.put(order.getId(), order));
+
+        List<BatchStageActionResponse.Result> results = new ArrayList<>(actions.size());
+        int succeeded = 0;
+        for (int index = 0; index < actions.size(); index++) {
+            BatchStageActionRequest.Action action = actions.get(index);
+            try {
+                OrderStageStatus status = applyBatchAction(orders.get(action.orderId()), action);
+                results.add(new BatchStageActionResponse.Result(
+                    index, action.orderId(), action.stage(), true, null, mapper.toStageResponse(status)));
+                succeeded++;
+            } catch (InvalidStageActionException | NotFoundException ex) {
+                results.add(new BatchStageActionResponse.Result(
+                    index, action.orderId(), action.stage(), false, ex.getMessage(), null));
+            }
         }
-        status.setAssignee(request.assignee());
-        status.markException(request.exceptionReason(), request.notes());
-        Order order = status.getOrder();
-        order.setOverallState(StageState.EXCEPTION);
-        order.touch();
-        return status;
+        return new BatchStageActionResponse(succeeded, actions.size() - succeeded, results);
     }
 
     public OrderStageStatus approveSkip(Long orderId, StageType stage, SupervisorDecisionRequest request) {
@@ -162,10 +262,12 @@ public class OrderWorkflowService {
         if (status.getState() != StageState.EXCEPTION && status.getState() != StageState.PENDING) {
             throw new InvalidStageActionException("Only exception or pending stages can be skipped");
         }
-        status.markSkipped(request.notes(), request.approver());
         Order order = status.getOrder();
+        StateSnapshot before = StateSnapshot.of(order);
+        status.markSkipped(request.notes(), request.approver());
         order.touch();
         advanceToNextStage(order, stage);
+        publishChange(WorkflowAction.SKIP_APPROVED, order, before);
         return status;
     }
 
@@ -174,12 +276,14 @@ public class OrderWorkflowService {
         if (status.getState() != StageState.COMPLETED && status.getState() != StageState.EXCEPTION) {
             throw new InvalidStageActionException("Rework can only be requested on completed or exception stages");
         }
-        status.markRework(request.notes(), request.approver());
         Order order = status.getOrder();
+        StateSnapshot before = StateSnapshot.of(order);
+        status.markRework(request.notes(), request.approver());
         resetDownstreamStages(order, stage);
         order.setCurrentStage(stage);
         order.setOverallState(StageState.IN_PROGRESS);
         order.touch();
+        publishChange(WorkflowAction.REWORK_REQUESTED, order, before);
         return status;
     }
 
@@ -187,6 +291,7 @@ public class OrderWorkflowService {
         Order order = findOrder(orderId);
         order.setPriority(request.priority());
         order.touch();
+        publishChange(WorkflowAction.REPRIORITIZED, order, StateSnapshot.of(order));
         return order;
     }
 
@@ -211,43 +316,115 @@ public class OrderWorkflowService {
         return new ArrayList<>(stageStatusRepository.findByOrderId(orderId));
     }
 
+    @Transactional(Transactional.TxType.SUPPORTS)
     public WipSummaryResponse buildWipSummary() {
-        List<Order> orders = orderRepository.findAll();
-        long total = orders.size();
-        long completedOrders = orders.stream()
-            .filter(order -> order.getOverallState() == StageState.COMPLETED)
-            .count();
-        long exceptionOrders = orders.stream()
-            .filter(order -> order.getOverallState() == StageState.EXCEPTION)
-            .count();
-
-        List<StageSummaryResponse> stageSummaries = Arrays.stream(StageType.values())
-            .map(stage -> {
-                long pending = orders.stream()
-                    .map(order -> order.getStageStatus(stage).orElse(null))
-                    .filter(Objects::nonNull)
-                    .filter(status -> status.getState() == StageState.PENDING || status.getState() == StageState.REWORK)
-                    .count();
-                long inProgress = orders.stream()
-                    .map(order -> order.getStageStatus(stage).orElse(null))
-                    .filter(Objects::nonNull)
-                    .filter(status -> status.getState() == StageState.IN_PROGRESS)
-                    .count();
-                long exceptions = orders.stream()
-                    .map(order -> order.getStageStatus(stage).orElse(null))
-                    .filter(Objects::nonNull)
-                    .filter(status -> status.getState() == StageState.EXCEPTION)
-                    .count();
-                long stageCompleted = orders.stream()
-                    .map(order -> order.getStageStatus(stage).orElse(null))
-                    .filter(Objects::nonNull)
-                    .filter(status -> status.getState() == StageState.COMPLETED || status.getState() == StageState.SKIPPED)
-                    .count();
-                return new StageSummaryResponse(stage, pending, inProgress, exceptions, stageCompleted);
-            })
-            .collect(Collectors.toList());
-
-        return new WipSummaryResponse(total, completedOrders, exceptionOrders, stageSummaries);
+        return wipCounters.summary();
+    }
+
+    private OrderStageStatus applyBatchAction(Order order, BatchStageActionRequest.Action action) {
+        if (order == null) {
+            throw new NotFoundException("Order not found: " + action.orderId());
+        }
+        StageType stage;
+        try {
+            stage = StageType.fromString(action.stage());
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidStageActionException("Unknown stage: " + action.stage());
+        }
+        OrderStageStatus status = order.getStageStatus(stage)
+            .orElseThrow(() -> new NotFoundException("Stage status not found for order %d and stage %s".formatted(order.getId(), stage)));
+        return switch (action.type()) {
+            case CLAIM -> applyClaim(status, required(action.assignee(), "Assignee is required"));
+            case COMPLETE -> applyComplete(status, new CompleteStageRequest(
+                required(action.assignee(), "Assignee is required"), action.serviceTimeMinutes(), action.notes()));
+            case CHECKLIST -> {
+                if (action.completed() == null) {
+                    throw new InvalidStageActionException("Checklist completion flag is required");
+                }
+                yield applyChecklistUpdate(status, new UpdateChecklistItemRequest(
+                    required(action.taskId(), "Task id is required"), action.completed()));
+            }
+            case FLAG -> applyFlagException(status, new FlagStageExceptionRequest(
+                required(action.assignee(), "Assignee is required"),
+                required(action.exceptionReason(), "Exception reason is required"),
+                action.notes()));
+        };
+    }
+
+    private static String required(String value, String message) {
+        if (value == null || value.isBlank()) {
+            throw new InvalidStageActionException(message);
+        }
+        return value;
+    }
+
+    private OrderStageStatus applyClaim(OrderStageStatus status, String assignee) {
+        StageType stage = status.getStage();
+        if (!(status.getState() == StageState.PENDING || status.getState() == StageState.REWORK)) {
+            throw new InvalidStageActionException("Stage is not available to claim: " + stage);
+        }
+        Order order = status.getOrder();
+        StateSnapshot before = StateSnapshot.of(order);
+        status.markInProgress(assignee);
+        status.setChecklistState(stageChecklistService.initializeState(stage));
+        order.setCurrentStage(stage);
+        order.touch();
+        order.setOverallState(StageState.IN_PROGRESS);
+        publishChange(WorkflowAction.CLAIMED, order, before);
+        return status;
+    }
+
+    private OrderStageStatus applyComplete(OrderStageStatus status, CompleteStageRequest request) {
+        StageType stage = status.getStage();
+        if (status.getState() != StageState.IN_PROGRESS) {
+            throw new InvalidStageActionException("Stage must be in progress to complete: " + stage);
+        }
+        if (!stageChecklistService.isChecklistComplete(stage, status.getChecklistState())) {
+            throw new InvalidStageActionException("All required checklist tasks must be completed before closing stage: " + stage);
+        }
+        Order order = status.getOrder();
+        StateSnapshot before = StateSnapshot.of(order);
+        status.setAssignee(request.assignee());
+        status.markCompleted(request.serviceTimeMinutes(), request.notes());
+        order.touch();
+        advanceToNextStage(order, stage);
+        publishChange(WorkflowAction.COMPLETED, order, before);
+        return status;
+    }
+
+    private OrderStageStatus applyChecklistUpdate(OrderStageStatus status, UpdateChecklistItemRequest request) {
+        StageType stage = status.getStage();
+        if (status.getState() != StageState.IN_PROGRESS) {
+            throw new InvalidStageActionException("Checklist can only be updated while stage is in progress: " + stage);
+        }
+        try {
+            var currentState = status.hasChecklistState()
+                ? status.getChecklistState()
+                : stageChecklistService.initializeState(stage);
+            status.setChecklistState(stageChecklistService.updateTask(stage, currentState, request.taskId(), request.completed()));
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidStageActionException(ex.getMessage());
+        }
+        status.setUpdatedAt(Instant.now());
+        Order order = status.getOrder();
+        order.touch();
+        publishChange(WorkflowAction.CHECKLIST_UPDATED, order, StateSnapshot.of(order));
+        return status;
+    }
+
+    private OrderStageStatus applyFlagException(OrderStageStatus status, FlagStageExceptionRequest request) {
+        EnumSet<StageState> allowed = EnumSet.of(StageState.IN_PROGRESS, StageState.PENDING, StageState.REWORK);
+        if (!allowed.contains(status.getState())) {
+            throw new InvalidStageActionException("Cannot flag exception for stage in state " + status.getState());
+        }
+        Order order = status.getOrder();
+        StateSnapshot before = StateSnapshot.of(order);
+        status.setAssignee(request.assignee());
+        status.markException(request.exceptionReason(), request.notes());
+        order.setOverallState(StageState.EXCEPTION);
+        order.touch();
+        publishChange(WorkflowAction.EXCEPTION_FLAGGED, order, before);
+        return status;
     }
 
     private void updateOrderState(Order order) {
@@ -288,8 +465,32 @@ public class OrderWorkflowService {
         }
     }
 
+    private void publishChange(WorkflowAction action, Order order, StateSnapshot before) {
+        eventPublisher.publishEvent(new OrderChangedEvent(
+            action,
+            mapper.toOrderResponse(order),
+            before.stageStates(),
+            before.overallState()));
+    }
+
+    private StageConflictException claimConflict(StageType stage) {
+        claimConflicts.get(stage).increment();
+        return new StageConflictException("Stage has already been claimed by another operator: " + stage);
+    }
+
     private OrderStageStatus getStageStatus(Long orderId, StageType stage) {
         return stageStatusRepository.findByOrderIdAndStage(orderId, stage)
             .orElseThrow(() -> new NotFoundException("Stage status not found for order %d and stage %s".formatted(orderId, stage)));
     }
+
+    private record StateSnapshot(Map<StageType, StageState> stageStates, StageState overallState) {
+
+        private static final StateSnapshot EMPTY = new StateSnapshot(Map.of(), null);
+
+        private static StateSnapshot of(Order order) {
+            Map<StageType, StageState> states = new EnumMap<>(StageType.class);
+            order.getStages().forEach(status -> states.put(status.getStage(), status.getState()));
+            return new StateSnapshot(states, order.getOverallState());
+        }
+    }
 }
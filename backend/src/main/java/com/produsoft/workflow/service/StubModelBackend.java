@@ -0,0 +1,198 @@
+package com.produsoft.workflow.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.produsoft.workflow.config.AiStreamingProperties;
+import com.produsoft.workflow.config.AiStubProperties;
+import com.produsoft.workflow.dto.AiChatRequest;
+import com.produsoft.workflow.dto.AiChatResponse;
+import com.produsoft.workflow.exception.AiClientException;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process stand-in for the model, selected by {@code app.ai.backend=stub}, for load-testing the AI endpoints
+ * without a model. Replies are derived from the last message, so the same question always gets the same
+ * answer, and are produced at a configured token rate after a fixed first-token latency. Streams emit the same
+ * NDJSON lines Ollama does and honour the consumer's demand, so backpressure and cancellation behave as they
+ * would against the real service.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.ai", name = "backend", havingValue = "stub")
+public class StubModelBackend implements AiModelBackend {
+
+    private static final String MODEL = "stub";
+    private static final String[] WORDS = {
+        "order", "stage", "preparation", "assembly", "delivery", "pending", "claimed", "completed", "exception",
+        "rework", "operator", "supervisor", "queue", "priority", "throughput", "backlog", "review", "schedule"
+    };
+
+    private final AiStubProperties properties;
+    private final AiStreamingProperties streamingProperties;
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong requests = new AtomicLong();
+
+    public StubModelBackend(AiStubProperties properties,
+                            AiStreamingProperties streamingProperties,
+                            ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.streamingProperties = streamingProperties;
+        this.objectMapper = objectMapper;
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors() / 2);
+        this.scheduler = Executors.newScheduledThreadPool(
+            threads, Thread.ofPlatform().name("ai-stub-", 0).daemon(true).factory());
+    }
+
+    @Override
+    public AiChatResponse chat(AiChatRequest request) {
+        boolean fail = nextRequestFails();
+        List<String> tokens = replyTokens(request);
+        try {
+            Thread.sleep(properties.getFirstTokenLatency().plus(tokenInterval().multipliedBy(tokens.size())));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new AiClientException("Interrupted while waiting for the stub model.", ex);
+        }
+        if (fail) {
+            throw new AiClientException("Stub model error: injected failure");
+        }
+        return new AiChatResponse(MODEL, "assistant", String.join("", tokens));
+    }
+
+    @Override
+    public AiChatStream openStream(AiChatRequest request) {
+        boolean fail = nextRequestFails();
+        List<String> tokens = replyTokens(request);
+        List<String> lines = new ArrayList<>(tokens.size() + 1);
+        int failAt = fail ? tokens.size() / 2 : -1;
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i == failAt) {
+                lines.add(line(Map.of("error", "Stub model error: injected failure")));
+                break;
+            }
+            lines.add(line(Map.of("model", MODEL, "message", Map.of("role", "assistant", "content", tokens.get(i)),
+                "done", false)));
+        }
+        if (!fail) {
+            lines.add(line(Map.of("model", MODEL, "done", true)));
+        }
+
+        AiChatStream stream = new AiChatStream(
+            objectMapper,
+            streamingProperties.getUpstreamWindow(),
+            streamingProperties.getFrameMaxChars(),
+            streamingProperties.getFrameInterval());
+        new StubSubscription(stream, lines).start();
+        return stream;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private boolean nextRequestFails() {
+        double rate = Math.min(1.0, Math.max(0.0, properties.getErrorRate()));
+        long n = requests.incrementAndGet();
+        return Math.floor(n * rate) > Math.floor((n - 1) * rate);
+    }
+
+    private List<String> replyTokens(AiChatRequest request) {
+        List<AiChatRequest.Message> messages = request.messages();
+        String question = messages.isEmpty() ? "" : messages.get(messages.size() - 1).content();
+        SplittableRandom random = new SplittableRandom(question.hashCode());
+        int count = Math.max(1, properties.getReplyTokens());
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tokens.add(WORDS[random.nextInt(WORDS.length)] + (i == count - 1 ? "." : " "));
+        }
+        return tokens;
+    }
+
+    private Duration tokenInterval() {
+        return Duration.ofNanos(TimeUnit.SECONDS.toNanos(1) / Math.max(1, properties.getTokensPerSecond()));
+    }
+
+    private String line(Map<String, Object> chunk) {
+        try {
+            return objectMapper.writeValueAsString(chunk);
+        } catch (JsonProcessingException ex) {
+            throw new AiClientException("Failed to serialize stub stream chunk.", ex);
+        }
+    }
+
+    /**
+     * Emits one line per tick while the subscriber has outstanding demand; ticks without demand are skipped,
+     * so a slow consumer slows the stub down instead of queueing lines.
+     */
+    private final class StubSubscription implements Flow.Subscription, Runnable {
+
+        private final Flow.Subscriber<String> subscriber;
+        private final List<String> lines;
+        private final AtomicLong demand = new AtomicLong();
+        private int next;
+        private volatile boolean done;
+        private volatile ScheduledFuture<?> ticks;
+
+        private StubSubscription(Flow.Subscriber<String> subscriber, List<String> lines) {
+            this.subscriber = subscriber;
+            this.lines = lines;
+        }
+
+        void start() {
+            subscriber.onSubscribe(this);
+            long interval = tokenInterval().toNanos();
+            ticks = scheduler.scheduleAtFixedRate(
+                this, properties.getFirstTokenLatency().toNanos(), interval, TimeUnit.NANOSECONDS);
+            if (done) {
+                ticks.cancel(false);
+            }
+        }
+
+        @Override
+        public void request(long n) {
+            if (n > 0) {
+                demand.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            finish();
+        }
+
+        @Override
+        public void run() {
+            if (done || demand.get() == 0) {
+                return;
+            }
+            demand.decrementAndGet();
+            subscriber.onNext(lines.get(next++));
+            if (next == lines.size() && !done) {
+                finish();
+                subscriber.onComplete();
+            }
+        }
+
+        private void finish() {
+            done = true;
+            ScheduledFuture<?> current = ticks;
+            if (current != null) {
+                current.cancel(false);
+            }
+        }
+    }
+}
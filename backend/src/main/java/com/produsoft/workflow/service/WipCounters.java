@@ -0,0 +1,166 @@
+package com.produsoft.workflow.service;
+
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.dto.OrderStageStatusResponse;
+import com.produsoft.workflow.dto.StageSummaryResponse;
+import com.produsoft.workflow.dto.WipSummaryResponse;
+import com.produsoft.workflow.event.OrderChangedEvent;
+import com.produsoft.workflow.repository.OrderRepository;
+import com.produsoft.workflow.repository.OrderStageStatusRepository;
+import com.produsoft.workflow.repository.OverallStateCount;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToIntFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Maintained StageType x StageState counter matrix plus overall-state totals backing the supervisor
+ * WIP summary. Counters move by the deltas carried in {@link OrderChangedEvent}s once the transition
+ * commits, and are periodically reconciled against {@code GROUP BY} aggregates to repair any drift.
+ */
+@Component
+public class WipCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(WipCounters.class);
+
+    private static final StageType[] STAGES = StageType.values();
+    private static final StageState[] STATES = StageState.values();
+
+    private final OrderRepository orderRepository;
+    private final OrderStageStatusRepository stageStatusRepository;
+
+    private final AtomicLongArray stageCounts = new AtomicLongArray(STAGES.length * STATES.length);
+    private final AtomicLongArray overallCounts = new AtomicLongArray(STATES.length);
+    private final AtomicLong totalOrders = new AtomicLong();
+    private final AtomicLong appliedChanges = new AtomicLong();
+    private volatile boolean initialized;
+
+    public WipCounters(OrderRepository orderRepository, OrderStageStatusRepository stageStatusRepository) {
+        this.orderRepository = orderRepository;
+        this.stageStatusRepository = stageStatusRepository;
+    }
+
+    public WipSummaryResponse summary() {
+        if (!initialized) {
+            reconcile();
+        }
+        List<StageSummaryResponse> stages = new ArrayList<>(STAGES.length);
+        for (StageType stage : STAGES) {
+            stages.add(new StageSummaryResponse(
+                stage,
+                stageCount(stage, StageState.PENDING) + stageCount(stage, StageState.REWORK),
+                stageCount(stage, StageState.IN_PROGRESS),
+                stageCount(stage, StageState.EXCEPTION),
+                stageCount(stage, StageState.COMPLETED) + stageCount(stage, StageState.SKIPPED)));
+        }
+        return new WipSummaryResponse(
+            totalOrders.get(),
+            overallCounts.get(StageState.COMPLETED.ordinal()),
+            overallCounts.get(StageState.EXCEPTION.ordinal()),
+            stages);
+    }
+
+    public long stageCount(StageType stage, StageState state) {
+        return stageCounts.get(slot(stage, state));
+    }
+
+    public long overallCount(StageState state) {
+        return overallCounts.get(state.ordinal());
+    }
+
+    public long totalOrders() {
+        return totalOrders.get();
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        boolean created = event.previousOverallState() == null && event.previousStageStates().isEmpty();
+        if (created) {
+            totalOrders.incrementAndGet();
+        }
+        for (OrderStageStatusResponse stage : event.order().stages()) {
+            move(stageCounts, event.previousState(stage.stage()), stage.state(), state -> slot(stage.stage(), state));
+        }
+        move(overallCounts, event.previousOverallState(), event.order().overallState(), StageState::ordinal);
+        appliedChanges.incrementAndGet();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    /**
+     * Recounts from the database. If transitions were applied while the aggregates were running the
+     * snapshot may already be stale, so it is discarded and the next run tries again.
+     */
+    @Scheduled(fixedDelayString = "${app.workflow.wip.reconcile-interval:PT5M}",
+               initialDelayString = "${app.workflow.wip.reconcile-interval:PT5M}")
+    public synchronized void reconcile() {
+        long changesBefore = appliedChanges.get();
+        long[] freshStageCounts = new long[stageCounts.length()];
+        long[] freshOverallCounts = new long[overallCounts.length()];
+        stageStatusRepository.countByStageAndState()
+            .forEach(count -> freshStageCounts[slot(count.stage(), count.state())] += count.total());
+        long freshTotal = 0;
+        for (OverallStateCount count : orderRepository.countByOverallState()) {
+            freshTotal += count.total();
+            if (count.state() != null) {
+                freshOverallCounts[count.state().ordinal()] += count.total();
+            }
+        }
+        if (initialized && appliedChanges.get() != changesBefore) {
+            log.debug("Skipping WIP reconciliation; transitions were applied while counting");
+            return;
+        }
+
+        int drift = 0;
+        for (int i = 0; i < freshStageCounts.length; i++) {
+            if (stageCounts.getAndSet(i, freshStageCounts[i]) != freshStageCounts[i]) {
+                drift++;
+            }
+        }
+        for (int i = 0; i < freshOverallCounts.length; i++) {
+            if (overallCounts.getAndSet(i, freshOverallCounts[i]) != freshOverallCounts[i]) {
+                drift++;
+            }
+        }
+        if (totalOrders.getAndSet(freshTotal) != freshTotal) {
+            drift++;
+        }
+        if (initialized && drift > 0) {
+            log.warn("WIP counters drifted from the database in {} cells; reconciled", drift);
+        }
+        initialized = true;
+    }
+
+    private static void move(AtomicLongArray counts,
+                             StageState from,
+                             StageState to,
+                             ToIntFunction<StageState> slotOf) {
+        if (from == to) {
+            return;
+        }
+        if (from != null) {
+            counts.decrementAndGet(slotOf.applyAsInt(from));
+        }
+        if (to != null) {
+            counts.incrementAndGet(slotOf.applyAsInt(to));
+        }
+    }
+
+    private static int slot(StageType stage, StageState state) {
+        return stage.ordinal() * STATES.length + state.ordinal();
+    }
+}
@@ -0,0 +1,340 @@
+package com.produsoft.workflow.service;
+
+import com.produsoft.workflow.datastructure.EnumKeyedLongObjectHashMap;
+import com.produsoft.workflow.datastructure.LongObjectHashMap;
+import com.produsoft.workflow.datastructure.LongPriorityQueue;
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.dto.OrderMapper;
+import com.produsoft.workflow.dto.OrderResponse;
+import com.produsoft.workflow.dto.OrderStageStatusResponse;
+import com.produsoft.workflow.dto.QueueIndexConsistencyResponse;
+import com.produsoft.workflow.dto.WorkQueueItemResponse;
+import com.produsoft.workflow.event.OrderChangedEvent;
+import com.produsoft.workflow.repository.OrderStageStatusRepository;
+import com.produsoft.workflow.repository.QueueEntryView;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * In-memory, write-through index of the operator work queues. Holds one concurrent sorted map per
+ * {@link StageType} and active {@link StageState}, ordered like
+ * {@code OrderStageStatusRepository#findQueueByStageAndStates}, so queue reads never touch the database.
+ * The index is rebuilt from the database at startup and kept current from {@link OrderChangedEvent}s
+ * once their transaction commits. Each stage also keeps a dispatch heap of its claimable entries, so the next
+ * order to hand an operator is read in O(1) and reprioritizing an order re-keys it in O(log n).
+ */
+@Component
+public class WorkQueueIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkQueueIndex.class);
+
+    static final Set<StageState> INDEXED_STATES =
+        EnumSet.of(StageState.PENDING, StageState.REWORK, StageState.IN_PROGRESS, StageState.EXCEPTION);
+
+    static final Set<StageState> DISPATCH_STATES = EnumSet.of(StageState.PENDING, StageState.REWORK);
+
+    private final OrderStageStatusRepository stageStatusRepository;
+    private final OrderMapper mapper;
+    private final ConcurrentLinkedQueue<OrderResponse> changesDuringRebuild = new ConcurrentLinkedQueue<>();
+
+    private volatile Map<StageType, StageQueues> queues = emptyQueues();
+    private volatile boolean ready;
+    private volatile boolean rebuilding;
+
+    public WorkQueueIndex(OrderStageStatusRepository stageStatusRepository, OrderMapper mapper) {
+        this.stageStatusRepository = stageStatusRepository;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Returns the queue for the stage, or empty when the requested states are not all indexed
+     * (or the index has not been built yet) and the caller must fall back to the database.
+     */
+    public Optional<List<WorkQueueItemResponse>> find(StageType stage, Collection<StageState> states) {
+        if (!ready || !INDEXED_STATES.containsAll(states)) {
+            return Optional.empty();
+        }
+        StageQueues stageQueues = queues.get(stage);
+        if (states.size() == 1) {
+            return Optional.of(List.copyOf(stageQueues.byState.get(states.iterator().next()).values()));
+        }
+        // Each per-state map is already sorted, so this sorts a handful of presorted runs.
+        List<Map.Entry<QueueKey, WorkQueueItemResponse>> entries = new ArrayList<>();
+        for (StageState state : EnumSet.copyOf(states)) {
+            entries.addAll(stageQueues.byState.get(state).entrySet());
+        }
+        entries.sort(Map.Entry.comparingByKey());
+        return Optional.of(entries.stream().map(Map.Entry::getValue).toList());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the claimable entry that heads the stage's queue, or empty when nothing is claimable. Only
+     * meaningful once {@link #isReady()}; before that callers must fall back to the database.
+     */
+    public Optional<WorkQueueItemResponse> next(StageType stage) {
+        StageQueues stageQueues = queues.get(stage);
+        while (true) {
+            long orderId;
+            synchronized (stageQueues.dispatch) {
+                if (stageQueues.dispatch.isEmpty()) {
+                    return Optional.empty();
+                }
+                orderId = stageQueues.dispatch.peek();
+            }
+            Location location = stageQueues.locations.get(orderId);
+            if (location != null && location.dispatchHandle >= 0) {
+                return Optional.of(location.item);
+            }
+            // A writer has re-keyed the heap but not yet published the order's location.
+            Thread.onSpinWait();
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        apply(queues, event.order());
+        if (rebuilding) {
+            changesDuringRebuild.add(event.order());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        rebuilding = true;
+        try {
+            Map<StageType, StageQueues> rebuilt = emptyQueues();
+            for (StageType stage : StageType.values()) {
+                stageStatusRepository.findQueueByStageAndStates(stage, INDEXED_STATES)
+                    .forEach(status -> rebuilt.get(stage).put(mapper.toQueueItem(status), status.getOrder().getUpdatedAt()));
+            }
+            queues = rebuilt;
+            OrderResponse pending;
+            while ((pending = changesDuringRebuild.poll()) != null) {
+                apply(rebuilt, pending);
+            }
+            ready = true;
+            log.info("Work queue index rebuilt with {} entries", size(rebuilt));
+        } finally {
+            rebuilding = false;
+            changesDuringRebuild.clear();
+        }
+    }
+
+    public QueueIndexConsistencyResponse checkConsistency() {
+        EnumKeyedLongObjectHashMap<StageType, QueueEntryView> expected =
+            new EnumKeyedLongObjectHashMap<>(StageType.class);
+        stageStatusRepository.findQueueEntriesByStates(INDEXED_STATES)
+            .forEach(entry -> expected.put(entry.stage(), entry.orderId(), entry));
+
+        Map<StageType, StageQueues> current = queues;
+        List<QueueIndexConsistencyResponse.StageConsistency> stages = new ArrayList<>();
+        for (StageType stage : StageType.values()) {
+            LongObjectHashMap<QueueEntryView> database = expected.of(stage);
+            Map<Long, Location> indexed = current.get(stage).locations;
+            List<Long> missing = new ArrayList<>();
+            List<Long> stale = new ArrayList<>();
+            List<Long> unexpected = new ArrayList<>();
+            database.forEach((orderId, entry) -> {
+                Location location = indexed.get(orderId);
+                if (location == null) {
+                    missing.add(orderId);
+                } else if (location.state != entry.state()
+                    || location.key.priority() != effectivePriority(entry.priority())) {
+                    stale.add(orderId);
+                }
+            });
+            indexed.keySet().stream()
+                .filter(orderId -> !database.containsKey(orderId))
+                .forEach(unexpected::add);
+            stages.add(new QueueIndexConsistencyResponse.StageConsistency(
+                stage, indexed.size(), database.size(), missing, stale, unexpected));
+        }
+        boolean consistent = stages.stream().allMatch(QueueIndexConsistencyResponse.StageConsistency::consistent);
+        return new QueueIndexConsistencyResponse(ready, consistent, stages);
+    }
+
+    private void apply(Map<StageType, StageQueues> target, OrderResponse order) {
+        for (OrderStageStatusResponse stage : order.stages()) {
+            StageQueues stageQueues = target.get(stage.stage());
+            if (INDEXED_STATES.contains(stage.state())) {
+                stageQueues.put(mapper.toQueueItem(order, stage), order.updatedAt());
+            } else {
+                stageQueues.remove(order.id(), order.updatedAt());
+            }
+        }
+    }
+
+    private static int size(Map<StageType, StageQueues> target) {
+        return target.values().stream().mapToInt(stageQueues -> stageQueues.locations.size()).sum();
+    }
+
+    private static int effectivePriority(Integer priority) {
+        return priority == null ? 0 : priority;
+    }
+
+    private static Map<StageType, StageQueues> emptyQueues() {
+        Map<StageType, StageQueues> map = new EnumMap<>(StageType.class);
+        for (StageType stage : StageType.values()) {
+            map.put(stage, new StageQueues());
+        }
+        return map;
+    }
+
+    /**
+     * Queue ordering: priority descending (missing priority counts as 0), then oldest first, then order id.
+     */
+    private record QueueKey(int priority, Instant createdAt, long orderId) implements Comparable<QueueKey> {
+
+        private static final Comparator<QueueKey> ORDER = Comparator
+            .comparingInt(QueueKey::priority).reversed()
+            .thenComparing(QueueKey::createdAt, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(QueueKey::orderId);
+
+        @Override
+        public int compareTo(QueueKey other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    /**
+     * Dispatch heap rank: creation time in microseconds, the precision the database keeps; orders without one
+     * sort last, as in {@link QueueKey}.
+     */
+    private static long dispatchRank(Instant createdAt) {
+        return createdAt == null
+            ? Long.MAX_VALUE
+            : createdAt.getEpochSecond() * 1_000_000L + createdAt.getNano() / 1_000;
+    }
+
+    private record Location(QueueKey key, StageState state, Instant version, WorkQueueItemResponse item,
+                            int dispatchHandle) {
+    }
+
+    private record Tombstone(long orderId, Instant version, Instant expiresAt) {
+    }
+
+    private static final class StageQueues {
+
+        // Removals arriving out of order are only a matter of concurrently committing transactions, so a
+        // tombstone only has to outlive those.
+        private static final Duration TOMBSTONE_TTL = Duration.ofMinutes(5);
+
+        private final Map<StageState, ConcurrentSkipListMap<QueueKey, WorkQueueItemResponse>> byState =
+            new EnumMap<>(StageState.class);
+        private final ConcurrentHashMap<Long, Location> locations = new ConcurrentHashMap<>();
+        // Guarded by its own monitor; handles are stored on the order's Location.
+        private final LongPriorityQueue dispatch = new LongPriorityQueue();
+        // Version of the last removal per order, so a late put of an older state cannot resurrect the entry.
+        private final ConcurrentHashMap<Long, Instant> removed = new ConcurrentHashMap<>();
+        private final ConcurrentLinkedQueue<Tombstone> tombstones = new ConcurrentLinkedQueue<>();
+
+        private StageQueues() {
+            for (StageState state : INDEXED_STATES) {
+                byState.put(state, new ConcurrentSkipListMap<>());
+            }
+        }
+
+        private void put(WorkQueueItemResponse item, Instant version) {
+            QueueKey key = new QueueKey(effectivePriority(item.priority()), item.orderCreatedAt(), item.orderId());
+            // compute() serialises writers per order, tombstones included; readers of the skip lists never block.
+            locations.compute(item.orderId(), (orderId, existing) -> {
+                if (existing != null && isOlder(version, existing.version)) {
+                    return existing;
+                }
+                if (existing == null) {
+                    Instant removedAt = removed.get(orderId);
+                    if (removedAt != null && isOlder(version, removedAt)) {
+                        return null;
+                    }
+                    removed.remove(orderId);
+                } else {
+                    byState.get(existing.state).remove(existing.key);
+                }
+                byState.get(item.stageState()).put(key, item);
+                int handle = dispatch(existing == null ? -1 : existing.dispatchHandle, key, item.stageState());
+                return new Location(key, item.stageState(), version, item, handle);
+            });
+        }
+
+        private void remove(Long orderId, Instant version) {
+            locations.compute(orderId, (id, existing) -> {
+                if (existing != null && isOlder(version, existing.version)) {
+                    return existing;
+                }
+                if (existing != null) {
+                    byState.get(existing.state).remove(existing.key);
+                    dispatch(existing.dispatchHandle, existing.key, null);
+                }
+                if (version != null) {
+                    Instant removedAt = removed.get(id);
+                    if (removedAt == null || isOlder(removedAt, version)) {
+                        removed.put(id, version);
+                        tombstones.add(new Tombstone(id, version, Instant.now().plus(TOMBSTONE_TTL)));
+                    }
+                }
+                return null;
+            });
+            expireTombstones();
+        }
+
+        private void expireTombstones() {
+            Instant now = Instant.now();
+            Tombstone oldest;
+            while ((oldest = tombstones.peek()) != null && oldest.expiresAt().isBefore(now)) {
+                if (tombstones.remove(oldest)) {
+                    // A newer removal of the same order keeps its own, later tombstone.
+                    removed.remove(oldest.orderId(), oldest.version());
+                }
+            }
+        }
+
+        private int dispatch(int handle, QueueKey key, StageState state) {
+            synchronized (dispatch) {
+                if (state == null || !DISPATCH_STATES.contains(state)) {
+                    if (handle >= 0) {
+                        dispatch.remove(handle);
+                    }
+                    return -1;
+                }
+                if (handle >= 0) {
+                    dispatch.update(handle, key.priority(), dispatchRank(key.createdAt()));
+                    return handle;
+                }
+                return dispatch.offer(key.orderId(), key.priority(), dispatchRank(key.createdAt()));
+            }
+        }
+
+        private static boolean isOlder(Instant candidate, Instant current) {
+            return candidate != null && current != null && candidate.isBefore(current);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.produsoft.workflow.service;
+
+import com.produsoft.workflow.config.WorkflowEventProperties;
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.dto.OrderStageStatusResponse;
+import com.produsoft.workflow.dto.WorkflowEventResponse;
+import com.produsoft.workflow.event.OrderChangedEvent;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fans committed {@link OrderChangedEvent}s out to {@code /api/events} subscribers as server-sent
+ * events. Each subscriber owns a bounded buffer drained on a background thread, so a slow client
+ * never blocks the committing request: pending events for the same order are coalesced, WIP summaries
+ * collapse into the latest one, and a subscriber that still overflows is told to {@code resync}.
+ * Recent events are kept in a short history for {@code Last-Event-ID} resume.
+ */
+@Component
+public class WorkflowEventBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowEventBroadcaster.class);
+
+    static final String ORDER_EVENT = "order";
+    static final String WIP_EVENT = "wip";
+    static final String RESYNC_EVENT = "resync";
+
+    private final WipCounters wipCounters;
+    private final WorkflowEventProperties properties;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ArrayDeque<WorkflowEventResponse> history = new ArrayDeque<>();
+    // Seeded from the clock so ids keep increasing across restarts and stale Last-Event-IDs fall out of range.
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    // One virtual thread per draining subscriber, so a stalled client parks instead of pinning a platform thread.
+    private final ExecutorService dispatcher =
+        Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("workflow-events-", 1).factory());
+
+    public WorkflowEventBroadcaster(WipCounters wipCounters, WorkflowEventProperties properties) {
+        this.wipCounters = wipCounters;
+        this.properties = properties;
+    }
+
+    /**
+     * Registers a subscriber. An empty stage set subscribes to every stage. When {@code lastEventId}
+     * is still covered by the history the missed events are replayed, otherwise the client is asked to resync.
+     */
+    public SseEmitter subscribe(Set<StageType> stages, boolean supervisor, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter,
+            stages.isEmpty() ? EnumSet.allOf(StageType.class) : EnumSet.copyOf(stages),
+            supervisor,
+            Math.max(1, properties.getSubscriberBufferSize()));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+
+        synchronized (history) {
+            if (lastEventId != null) {
+                WorkflowEventResponse oldest = history.peekFirst();
+                boolean covered = oldest == null
+                    ? lastEventId == sequence.get()
+                    : lastEventId >= oldest.id() - 1 && lastEventId <= sequence.get();
+                if (covered) {
+                    history.stream()
+                        .filter(event -> event.id() > lastEventId)
+                        .filter(subscriber::accepts)
+                        .forEach(subscriber::offer);
+                } else {
+                    subscriber.requestResync();
+                }
+            }
+            // Registered under the history lock so no event is both replayed and delivered live, or missed.
+            subscribers.add(subscriber);
+        }
+        if (supervisor) {
+            subscriber.offerWip();
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Runs after the derived views (work queue index, WIP counters) so clients reacting to an event
+     * read state that already includes it.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        WorkflowEventResponse payload;
+        synchronized (history) {
+            payload = toPayload(sequence.incrementAndGet(), event);
+            history.addLast(payload);
+            while (history.size() > Math.max(0, properties.getHistorySize())) {
+                history.pollFirst();
+            }
+            for (Subscriber subscriber : subscribers) {
+                if (subscriber.accepts(payload)) {
+                    subscriber.offer(payload);
+                }
+                if (subscriber.supervisor) {
+                    subscriber.offerWip();
+                }
+            }
+        }
+        subscribers.forEach(this::schedule);
+    }
+
+    @Scheduled(fixedDelayString = "${app.workflow.events.heartbeat-interval:PT20S}",
+               initialDelayString = "${app.workflow.events.heartbeat-interval:PT20S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            schedule(subscriber);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            try {
+                subscriber.emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // Already completed by the client.
+            }
+        }
+        subscribers.clear();
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException ex) {
+            subscriber.draining.set(false);
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (true) {
+                Batch batch = subscriber.takeBatch();
+                if (batch.isEmpty()) {
+                    break;
+                }
+                send(subscriber, batch);
+            }
+        } catch (IOException | IllegalStateException ex) {
+            log.debug("Dropping workflow event subscriber: {}", ex.getMessage());
+            subscribers.remove(subscriber);
+            try {
+                subscriber.emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // Already completed by the client.
+            }
+            return;
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Something may have been offered after the last takeBatch() but before the flag was cleared.
+        if (subscriber.hasPending() && subscribers.contains(subscriber)) {
+            schedule(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, Batch batch) throws IOException {
+        SseEmitter emitter = subscriber.emitter;
+        if (batch.resync) {
+            emitter.send(SseEmitter.event().id(Long.toString(sequence.get())).name(RESYNC_EVENT).data(Map.of()));
+        }
+        for (WorkflowEventResponse event : batch.events) {
+            emitter.send(SseEmitter.event().id(Long.toString(event.id())).name(ORDER_EVENT).data(event));
+        }
+        if (batch.wip) {
+            emitter.send(SseEmitter.event().name(WIP_EVENT).data(wipCounters.summary()));
+        }
+        if (batch.heartbeat) {
+            emitter.send(SseEmitter.event().comment("keep-alive"));
+        }
+    }
+
+    private static WorkflowEventResponse toPayload(long id, OrderChangedEvent event) {
+        List<WorkflowEventResponse.StageChange> changes = new ArrayList<>();
+        for (OrderStageStatusResponse stage : event.order().stages()) {
+            StageState previous = event.previousState(stage.stage());
+            if (previous != stage.state()) {
+                changes.add(new WorkflowEventResponse.StageChange(stage.stage(), previous, stage.state()));
+            }
+        }
+        return new WorkflowEventResponse(id, event.action(), Instant.now(),
+            event.previousOverallState(), changes, event.order());
+    }
+
+    /**
+     * Folds a newer event for the same order into an undelivered one, keeping the earliest previous
+     * state per stage so the merged change still spans both transitions.
+     */
+    private static WorkflowEventResponse coalesce(WorkflowEventResponse older, WorkflowEventResponse newer) {
+        Map<StageType, WorkflowEventResponse.StageChange> merged = new LinkedHashMap<>();
+        older.stageChanges().forEach(change -> merged.put(change.stage(), change));
+        for (WorkflowEventResponse.StageChange change : newer.stageChanges()) {
+            WorkflowEventResponse.StageChange earlier = merged.get(change.stage());
+            merged.put(change.stage(), earlier == null
+                ? change
+                : new WorkflowEventResponse.StageChange(change.stage(), earlier.previousState(), change.state()));
+        }
+        merged.values().removeIf(change -> change.previousState() == change.state());
+        return new WorkflowEventResponse(newer.id(), newer.action(), newer.occurredAt(),
+            older.previousOverallState(), List.copyOf(merged.values()), newer.order());
+    }
+
+    private record Batch(boolean resync, List<WorkflowEventResponse> events, boolean wip, boolean heartbeat) {
+
+        private boolean isEmpty() {
+            return !resync && events.isEmpty() && !wip && !heartbeat;
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<StageType> stages;
+        private final boolean supervisor;
+        private final int bufferSize;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        // Keyed by order id; insertion order follows event ids so delivery stays monotonic for resume.
+        private final LinkedHashMap<Long, WorkflowEventResponse> pending = new LinkedHashMap<>();
+        private boolean resync;
+        private boolean wipDue;
+        private volatile boolean heartbeatDue;
+
+        private Subscriber(SseEmitter emitter, Set<StageType> stages, boolean supervisor, int bufferSize) {
+            this.emitter = emitter;
+            this.stages = stages;
+            this.supervisor = supervisor;
+            this.bufferSize = bufferSize;
+        }
+
+        /**
+         * Supervisors see every order. Operators see an order when one of their stages changed state,
+         * or when it sits in one of their queues (priority and checklist edits reorder or relabel it).
+         */
+        private boolean accepts(WorkflowEventResponse event) {
+            if (supervisor) {
+                return true;
+            }
+            for (WorkflowEventResponse.StageChange change : event.stageChanges()) {
+                if (stages.contains(change.stage())) {
+                    return true;
+                }
+            }
+            for (OrderStageStatusResponse stage : event.order().stages()) {
+                if (stages.contains(stage.stage()) && WorkQueueIndex.INDEXED_STATES.contains(stage.state())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private synchronized void offer(WorkflowEventResponse event) {
+            if (resync) {
+                // The client will refetch everything anyway.
+                return;
+            }
+            Long orderId = event.order().id();
+            WorkflowEventResponse undelivered = pending.remove(orderId);
+            pending.put(orderId, undelivered == null ? event : coalesce(undelivered, event));
+            if (pending.size() > bufferSize) {
+                requestResync();
+            }
+        }
+
+        private synchronized void offerWip() {
+            wipDue = true;
+        }
+
+        private synchronized void requestResync() {
+            pending.clear();
+            resync = true;
+        }
+
+        private synchronized boolean hasPending() {
+            return resync || wipDue || heartbeatDue || !pending.isEmpty();
+        }
+
+        private synchronized Batch takeBatch() {
+            List<WorkflowEventResponse> events = new ArrayList<>(pending.values());
+            pending.clear();
+            Batch batch = new Batch(resync, events, wipDue, heartbeatDue && events.isEmpty() && !resync && !wipDue);
+            resync = false;
+            wipDue = false;
+            heartbeatDue = false;
+            return batch;
+        }
+    }
+}
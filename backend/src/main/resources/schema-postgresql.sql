@@ -0,0 +1,9 @@
+-- Orders and stage statuses used to take their ids from BIGSERIAL columns. Hibernate now allocates
+-- them from orders_seq / order_stage_status_seq in blocks of 50 (pooled optimizer: a nextval of N
+-- hands out N-49..N), so on databases that already hold rows the sequences must be moved past the
+-- highest existing id. Each statement only fires while the sequence still lags behind the table.
+SELECT setval('orders_seq', (SELECT MAX(id) FROM orders) + 50, false)
+WHERE (SELECT last_value FROM orders_seq) <= (SELECT COALESCE(MAX(id), 0) FROM orders);
+
+SELECT setval('order_stage_status_seq', (SELECT MAX(id) FROM order_stage_status) + 50, false)
+WHERE (SELECT last_value FROM order_stage_status_seq) <= (SELECT COALESCE(MAX(id), 0) FROM order_stage_status);
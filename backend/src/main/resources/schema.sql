@@ -1,16 +1,20 @@
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS order_stage_status_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE IF NOT EXISTS orders (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     order_number VARCHAR(255) NOT NULL UNIQUE,
     priority INTEGER,
     current_stage VARCHAR(50),
     overall_state VARCHAR(50),
     created_at TIMESTAMP WITH TIME ZONE,
     updated_at TIMESTAMP WITH TIME ZONE,
-    notes VARCHAR(1024)
+    notes VARCHAR(1024),
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS order_stage_status (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     order_id BIGINT NOT NULL REFERENCES orders(id) ON DELETE CASCADE,
     stage VARCHAR(50) NOT NULL,
     state VARCHAR(50) NOT NULL,
@@ -25,9 +29,18 @@ CREATE TABLE IF NOT EXISTS order_stage_status (
     approved_by VARCHAR(255),
     updated_at TIMESTAMP WITH TIME ZONE,
     checklist_state TEXT,
+    version BIGINT NOT NULL DEFAULT 0,
     CONSTRAINT uq_order_stage_status_order_stage UNIQUE (order_id, stage)
 );
 
+-- Optimistic-locking versions for tables created before the column existed.
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE order_stage_status ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+CREATE INDEX IF NOT EXISTS idx_orders_listing ON orders(priority DESC NULLS LAST, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_orders_listing_overall_state ON orders(overall_state, priority DESC NULLS LAST, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_orders_listing_current_stage ON orders(current_stage, priority DESC NULLS LAST, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_orders_updated_at ON orders(updated_at);
 CREATE INDEX IF NOT EXISTS idx_order_stage_status_order_id ON order_stage_status(order_id);
 CREATE INDEX IF NOT EXISTS idx_order_stage_status_stage ON order_stage_status(stage);
 
@@ -36,7 +49,10 @@ CREATE TABLE IF NOT EXISTS ai_conversations (
     created_by VARCHAR(255) NOT NULL,
     created_at TIMESTAMP WITH TIME ZONE NOT NULL,
     updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
-    title VARCHAR(255)
+    title VARCHAR(255),
+    summary TEXT,
+    summarized_through_id BIGINT,
+    summarized_count INTEGER NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS ai_messages (
@@ -47,5 +63,15 @@ CREATE TABLE IF NOT EXISTS ai_messages (
     created_at TIMESTAMP WITH TIME ZONE NOT NULL
 );
 
-CREATE INDEX IF NOT EXISTS idx_ai_conversations_created_by ON ai_conversations(created_by);
-CREATE INDEX IF NOT EXISTS idx_ai_messages_conversation_id ON ai_messages(conversation_id);
+-- Rolling history checkpoints for conversations created before the columns existed.
+ALTER TABLE ai_conversations ADD COLUMN IF NOT EXISTS summary TEXT;
+ALTER TABLE ai_conversations ADD COLUMN IF NOT EXISTS summarized_through_id BIGINT;
+ALTER TABLE ai_conversations ADD COLUMN IF NOT EXISTS summarized_count INTEGER NOT NULL DEFAULT 0;
+
+-- Conversation listings are keyset-paged by (updated_at, id) within a user.
+DROP INDEX IF EXISTS idx_ai_conversations_created_by;
+CREATE INDEX IF NOT EXISTS idx_ai_conversations_created_by_updated_at ON ai_conversations(created_by, updated_at DESC, id DESC);
+
+-- Message tails and pages are read by (conversation_id, id); this also covers lookups by conversation alone.
+DROP INDEX IF EXISTS idx_ai_messages_conversation_id;
+CREATE INDEX IF NOT EXISTS idx_ai_messages_conversation_id_id ON ai_messages(conversation_id, id);
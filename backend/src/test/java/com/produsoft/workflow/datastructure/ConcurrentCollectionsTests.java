@@ -0,0 +1,298 @@
+package com.produsoft.workflow.datastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.produsoft.workflow.datastructure.LinearizabilityChecker.Call;
+import com.produsoft.workflow.datastructure.LinearizabilityChecker.Model;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentCollectionsTests {
+
+    private static final int ROUNDS = 500;
+    private static final int THREADS = 3;
+    private static final int CALLS_PER_THREAD = 4;
+
+    @Test
+    void boundedQueueIsLinearizable() throws Exception {
+        int capacity = 2;
+        Model<List<Integer>> fifo = (state, call) -> switch (call.method()) {
+            case "offer" -> Objects.equals(call.result(), state.size() < capacity)
+                ? (state.size() < capacity ? append(state, (Integer) call.argument()) : state)
+                : null;
+            case "poll" -> state.isEmpty()
+                ? (call.result() == null ? state : null)
+                : (state.get(0).equals(call.result()) ? state.subList(1, state.size()) : null);
+            default -> throw new IllegalArgumentException(call.method());
+        };
+        for (int round = 0; round < ROUNDS; round++) {
+            ConcurrentBoundedQueue<Integer> queue = new ConcurrentBoundedQueue<>(capacity);
+            List<Call> history = LinearizabilityChecker.record(THREADS, CALLS_PER_THREAD, round, random -> {
+                if (random.nextBoolean()) {
+                    int value = random.nextInt(100);
+                    return Call.timed("offer", value, () -> queue.offer(value));
+                }
+                return Call.timed("poll", null, queue::poll);
+            });
+            assertThat(LinearizabilityChecker.isLinearizable(history, List.<Integer>of(), fifo))
+                .as("round %d: %s", round, history)
+                .isTrue();
+        }
+    }
+
+    @Test
+    void stackIsLinearizable() throws Exception {
+        Model<List<Integer>> lifo = (state, call) -> switch (call.method()) {
+            case "push" -> prepend(state, (Integer) call.argument());
+            case "tryPop" -> state.isEmpty()
+                ? (call.result() == null ? state : null)
+                : (state.get(0).equals(call.result()) ? state.subList(1, state.size()) : null);
+            default -> throw new IllegalArgumentException(call.method());
+        };
+        for (int round = 0; round < ROUNDS; round++) {
+            ConcurrentStack<Integer> stack = new ConcurrentStack<>();
+            List<Call> history = LinearizabilityChecker.record(THREADS, CALLS_PER_THREAD, round, random -> {
+                if (random.nextBoolean()) {
+                    int value = random.nextInt(100);
+                    return Call.timed("push", value, () -> {
+                        stack.push(value);
+                        return null;
+                    });
+                }
+                return Call.timed("tryPop", null, stack::tryPop);
+            });
+            assertThat(LinearizabilityChecker.isLinearizable(history, List.<Integer>of(), lifo))
+                .as("round %d: %s", round, history)
+                .isTrue();
+        }
+    }
+
+    @Test
+    void priorityQueueIsLinearizable() throws Exception {
+        Model<List<Integer>> sorted = (state, call) -> switch (call.method()) {
+            case "offer" -> {
+                List<Integer> next = append(state, (Integer) call.argument());
+                yield next.stream().sorted().toList();
+            }
+            case "poll" -> state.isEmpty()
+                ? (call.result() == null ? state : null)
+                : (state.get(0).equals(call.result()) ? state.subList(1, state.size()) : null);
+            default -> throw new IllegalArgumentException(call.method());
+        };
+        for (int round = 0; round < ROUNDS; round++) {
+            ConcurrentPriorityQueue<Integer> queue = new ConcurrentPriorityQueue<>();
+            List<Call> history = LinearizabilityChecker.record(THREADS, CALLS_PER_THREAD, round, random -> {
+                if (random.nextBoolean()) {
+                    int value = random.nextInt(5);
+                    return Call.timed("offer", value, () -> {
+                        queue.offer(value);
+                        return null;
+                    });
+                }
+                return Call.timed("poll", null, queue::poll);
+            });
+            assertThat(LinearizabilityChecker.isLinearizable(history, List.<Integer>of(), sorted))
+                .as("round %d: %s", round, history)
+                .isTrue();
+        }
+    }
+
+    @Test
+    void stripedHashSetIsLinearizable() throws Exception {
+        Model<Set<Integer>> set = (state, call) -> {
+            Integer value = (Integer) call.argument();
+            boolean present = state.contains(value);
+            return switch (call.method()) {
+                case "add" -> call.result().equals(!present) ? with(state, value, true) : null;
+                case "remove" -> call.result().equals(present) ? with(state, value, false) : null;
+                case "contains" -> call.result().equals(present) ? state : null;
+                default -> throw new IllegalArgumentException(call.method());
+            };
+        };
+        for (int round = 0; round < ROUNDS; round++) {
+            // Two stripes for three keys, so calls on different keys share a lock too.
+            StripedHashSet<Integer> striped = new StripedHashSet<>(2);
+            List<Call> history = LinearizabilityChecker.record(THREADS, CALLS_PER_THREAD, round, random -> {
+                int value = random.nextInt(3);
+                return switch (random.nextInt(3)) {
+                    case 0 -> Call.timed("add", value, () -> striped.add(value));
+                    case 1 -> Call.timed("remove", value, () -> striped.remove(value));
+                    default -> Call.timed("contains", value, () -> striped.contains(value));
+                };
+            });
+            assertThat(LinearizabilityChecker.isLinearizable(history, Set.<Integer>of(), set))
+                .as("round %d: %s", round, history)
+                .isTrue();
+        }
+    }
+
+    @Test
+    void boundedQueueHandsEachElementToOneConsumerInProducerOrder() throws Exception {
+        int producers = 4;
+        int consumers = 4;
+        int perProducer = 25_000;
+        ConcurrentBoundedQueue<Long> queue = new ConcurrentBoundedQueue<>(64);
+        AtomicInteger consumed = new AtomicInteger();
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        List<Boolean> ordered = new ArrayList<>();
+
+        runConcurrently(producers + consumers, worker -> {
+            if (worker < producers) {
+                for (long i = 0; i < perProducer; i++) {
+                    while (!queue.offer(((long) worker << 32) | i)) {
+                        Thread.yield();
+                    }
+                }
+                return true;
+            }
+            long[] lastByProducer = {-1, -1, -1, -1};
+            boolean inOrder = true;
+            while (consumed.get() < producers * perProducer) {
+                Long value = queue.poll();
+                if (value == null) {
+                    Thread.yield();
+                    continue;
+                }
+                consumed.incrementAndGet();
+                seen.add(value);
+                int producer = (int) (value >>> 32);
+                long index = value & 0xffffffffL;
+                inOrder &= index > lastByProducer[producer];
+                lastByProducer[producer] = index;
+            }
+            return inOrder;
+        }).forEach(ordered::add);
+
+        assertThat(consumed).hasValue(producers * perProducer);
+        assertThat(seen).hasSize(producers * perProducer);
+        assertThat(ordered).containsOnly(true);
+        assertThat(queue.poll()).isNull();
+    }
+
+    @Test
+    void stackAndPriorityQueueLoseNothingUnderContention() throws Exception {
+        int threads = 8;
+        int perThread = 20_000;
+        ConcurrentStack<Integer> stack = new ConcurrentStack<>();
+        ConcurrentPriorityQueue<Integer> queue = new ConcurrentPriorityQueue<>();
+        Set<Integer> popped = ConcurrentHashMap.newKeySet();
+        AtomicInteger polledTwice = new AtomicInteger();
+
+        runConcurrently(threads, worker -> {
+            for (int i = 0; i < perThread; i++) {
+                int value = worker * perThread + i;
+                stack.push(value);
+                queue.offer(value);
+                Integer fromStack = stack.tryPop();
+                if (fromStack != null && !popped.add(fromStack)) {
+                    polledTwice.incrementAndGet();
+                }
+                if (i % 2 == 0) {
+                    queue.poll();
+                }
+            }
+            return true;
+        });
+
+        Integer value;
+        while ((value = stack.tryPop()) != null) {
+            if (!popped.add(value)) {
+                polledTwice.incrementAndGet();
+            }
+        }
+        assertThat(polledTwice).hasValue(0);
+        assertThat(popped).hasSize(threads * perThread);
+        assertThat(stack.isEmpty()).isTrue();
+
+        assertThat(queue.size()).isEqualTo(threads * perThread / 2);
+        Integer previous = Integer.MIN_VALUE;
+        while ((value = queue.poll()) != null) {
+            assertThat(value).isGreaterThanOrEqualTo(previous);
+            previous = value;
+        }
+    }
+
+    @Test
+    void stripedHashSetCountsConcurrentAddsOfOverlappingRanges() throws Exception {
+        int threads = 8;
+        StripedHashSet<Integer> set = new StripedHashSet<>();
+        AtomicInteger added = new AtomicInteger();
+
+        // Thread t adds [t * 5_000, t * 5_000 + 20_000): each value in the middle is raced by four threads.
+        runConcurrently(threads, worker -> {
+            for (int i = worker * 5_000; i < worker * 5_000 + 20_000; i++) {
+                if (set.add(i)) {
+                    added.incrementAndGet();
+                }
+            }
+            return true;
+        });
+
+        int distinct = (threads - 1) * 5_000 + 20_000;
+        assertThat(added).hasValue(distinct);
+        assertThat(set.size()).isEqualTo(distinct);
+        assertThat(set.contains(distinct - 1)).isTrue();
+        assertThat(set.contains(distinct)).isFalse();
+    }
+
+    private interface Worker {
+        boolean run(int worker) throws Exception;
+    }
+
+    private static List<Boolean> runConcurrently(int threads, Worker body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int worker = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return body.run(worker);
+                }));
+            }
+            start.countDown();
+            List<Boolean> results = new ArrayList<>();
+            for (Future<Boolean> future : futures) {
+                results.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Integer> append(List<Integer> state, Integer value) {
+        List<Integer> next = new ArrayList<>(state);
+        next.add(value);
+        return List.copyOf(next);
+    }
+
+    private static List<Integer> prepend(List<Integer> state, Integer value) {
+        List<Integer> next = new ArrayList<>(state.size() + 1);
+        next.add(value);
+        next.addAll(state);
+        return List.copyOf(next);
+    }
+
+    private static Set<Integer> with(Set<Integer> state, Integer value, boolean present) {
+        Set<Integer> next = new TreeSet<>(state);
+        if (present) {
+            next.add(value);
+        } else {
+            next.remove(value);
+        }
+        return Set.copyOf(next);
+    }
+}
@@ -0,0 +1,202 @@
+package com.produsoft.workflow.datastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the addressable heaps against a sorted reference after random re-keys and removals.
+ */
+class IndexedPriorityQueueTests {
+
+    @Test
+    void indexedQueuePollsInOrderAfterRandomUpdatesAndRemovals() {
+        Random random = new Random(5);
+        IndexedPriorityQueue<Integer> queue = new IndexedPriorityQueue<>();
+        java.util.PriorityQueue<Integer> expected = new java.util.PriorityQueue<>();
+        List<IndexedPriorityQueue.Handle<Integer>> handles = new ArrayList<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            int operation = handles.isEmpty() ? 0 : random.nextInt(7);
+            switch (operation) {
+                case 0, 1 -> {
+                    int value = random.nextInt(1_000);
+                    handles.add(queue.offer(value));
+                    expected.add(value);
+                }
+                case 2 -> {
+                    IndexedPriorityQueue.Handle<Integer> handle = handles.get(random.nextInt(handles.size()));
+                    int value = handle.value() - random.nextInt(100);
+                    expected.remove(handle.value());
+                    queue.decreaseKey(handle, value);
+                    expected.add(value);
+                }
+                case 3 -> {
+                    IndexedPriorityQueue.Handle<Integer> handle = handles.get(random.nextInt(handles.size()));
+                    int value = handle.value() + random.nextInt(100);
+                    expected.remove(handle.value());
+                    queue.increaseKey(handle, value);
+                    expected.add(value);
+                }
+                case 4 -> {
+                    IndexedPriorityQueue.Handle<Integer> handle = handles.remove(random.nextInt(handles.size()));
+                    expected.remove(handle.value());
+                    assertThat(queue.remove(handle)).isTrue();
+                    assertThat(queue.contains(handle)).isFalse();
+                    assertThat(queue.remove(handle)).isFalse();
+                }
+                case 5 -> {
+                    IndexedPriorityQueue.Handle<Integer> handle = handles.get(random.nextInt(handles.size()));
+                    int value = random.nextInt(1_000);
+                    expected.remove(handle.value());
+                    queue.update(handle, value);
+                    expected.add(value);
+                }
+                default -> {
+                    IndexedPriorityQueue.Handle<Integer> head = queue.peekHandle();
+                    assertThat(queue.poll()).isEqualTo(expected.poll());
+                    handles.remove(head);
+                    assertThat(queue.contains(head)).isFalse();
+                }
+            }
+            assertThat(queue.size()).isEqualTo(expected.size());
+            if (!expected.isEmpty()) {
+                assertThat(queue.peek()).isEqualTo(expected.peek());
+            }
+        }
+        while (!expected.isEmpty()) {
+            assertThat(queue.poll()).isEqualTo(expected.poll());
+        }
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    void indexedQueueRejectsWrongDirectionAndForeignHandles() {
+        IndexedPriorityQueue<Integer> queue = new IndexedPriorityQueue<>();
+        IndexedPriorityQueue.Handle<Integer> handle = queue.offer(10);
+        IndexedPriorityQueue.Handle<Integer> foreign = new IndexedPriorityQueue<Integer>().offer(10);
+
+        assertThatThrownBy(() -> queue.decreaseKey(handle, 11)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> queue.increaseKey(handle, 9)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(queue.contains(foreign)).isFalse();
+        assertThatThrownBy(() -> queue.update(foreign, 1)).isInstanceOf(NoSuchElementException.class);
+
+        queue.clear();
+        assertThat(queue.contains(handle)).isFalse();
+        assertThatThrownBy(queue::poll).isInstanceOf(NoSuchElementException.class);
+        assertThat(queue.offer(3).value()).isEqualTo(3);
+        assertThat(queue.size()).isEqualTo(1);
+    }
+
+    @Test
+    void longQueuePollsInOrderAfterRandomUpdatesRemovalsAndHandleReuse() {
+        Comparator<Key> order = Comparator.comparingInt(Key::priority).reversed()
+            .thenComparingLong(Key::rank)
+            .thenComparingLong(Key::id);
+        Random random = new Random(9);
+        LongPriorityQueue queue = new LongPriorityQueue();
+        TreeSet<Key> expected = new TreeSet<>(order);
+        Map<Long, Integer> handles = new HashMap<>();
+        Map<Long, Key> keys = new HashMap<>();
+        Set<Integer> issued = new HashSet<>();
+        int reused = 0;
+
+        for (int i = 0; i < 100_000; i++) {
+            long id = random.nextInt(300);
+            Key key = new Key(random.nextInt(4), random.nextInt(50), id);
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    if (!handles.containsKey(id)) {
+                        int handle = queue.offer(id, key.priority(), key.rank());
+                        if (handles.containsValue(handle)) {
+                            throw new AssertionError("Handle " + handle + " is still held by a queued element");
+                        }
+                        reused += issued.add(handle) ? 0 : 1;
+                        handles.put(id, handle);
+                        keys.put(id, key);
+                        expected.add(key);
+                    }
+                }
+                case 1 -> {
+                    if (handles.containsKey(id)) {
+                        queue.update(handles.get(id), key.priority(), key.rank());
+                        expected.remove(keys.put(id, key));
+                        expected.add(key);
+                    }
+                }
+                case 2 -> {
+                    if (handles.containsKey(id)) {
+                        int handle = handles.remove(id);
+                        assertThat(queue.remove(handle)).isTrue();
+                        assertThat(queue.contains(handle)).isFalse();
+                        expected.remove(keys.remove(id));
+                    }
+                }
+                default -> {
+                    if (!expected.isEmpty()) {
+                        Key head = expected.pollFirst();
+                        int handle = queue.peekHandle();
+                        assertThat(queue.priority(handle)).isEqualTo(head.priority());
+                        assertThat(queue.rank(handle)).isEqualTo(head.rank());
+                        assertThat(queue.poll()).isEqualTo(head.id());
+                        handles.remove(head.id());
+                        keys.remove(head.id());
+                    }
+                }
+            }
+            assertThat(queue.size()).isEqualTo(expected.size());
+            for (Map.Entry<Long, Integer> entry : handles.entrySet()) {
+                if (random.nextInt(50) == 0) {
+                    assertThat(queue.id(entry.getValue())).isEqualTo(entry.getKey());
+                }
+            }
+            if (!expected.isEmpty()) {
+                assertThat(queue.peek()).isEqualTo(expected.first().id());
+            }
+        }
+        assertThat(reused).isPositive();
+        while (!expected.isEmpty()) {
+            assertThat(queue.poll()).isEqualTo(expected.pollFirst().id());
+        }
+        assertThat(queue.isEmpty()).isTrue();
+    }
+
+    @Test
+    void longQueueHandlesAreRecycledAfterRemovalAndClear() {
+        LongPriorityQueue queue = new LongPriorityQueue();
+        int first = queue.offer(1, 0, 0);
+        int second = queue.offer(2, 5, 0);
+        assertThat(queue.remove(first)).isTrue();
+        assertThat(queue.contains(first)).isFalse();
+        assertThatThrownBy(() -> queue.update(first, 1, 1)).isInstanceOf(NoSuchElementException.class);
+
+        // The freed handle is handed to the next element.
+        int third = queue.offer(3, 9, 0);
+        assertThat(third).isEqualTo(first);
+        assertThat(queue.id(third)).isEqualTo(3);
+        assertThat(queue.poll()).isEqualTo(3);
+        assertThat(queue.peek()).isEqualTo(2);
+
+        queue.clear();
+        assertThat(queue.isEmpty()).isTrue();
+        assertThat(queue.contains(second)).isFalse();
+        assertThatThrownBy(queue::peek).isInstanceOf(NoSuchElementException.class);
+        int afterClear = queue.offer(4, 0, 0);
+        assertThat(queue.contains(afterClear)).isTrue();
+        assertThat(queue.poll()).isEqualTo(4);
+    }
+
+    private record Key(int priority, long rank, long id) {
+    }
+}
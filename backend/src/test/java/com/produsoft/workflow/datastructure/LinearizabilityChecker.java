@@ -0,0 +1,106 @@
+package com.produsoft.workflow.datastructure;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Small stress harness for the concurrent collections: runs a few threads of random calls against one
+ * instance, records when each call started and returned, and then searches for a sequential order of the
+ * calls that respects real time and that a single-threaded model of the collection would also produce
+ * (Wing and Gong's check). Histories are kept short so the search stays cheap, and many rounds are run instead.
+ */
+final class LinearizabilityChecker {
+
+    private LinearizabilityChecker() {
+    }
+
+    record Call(String method, Object argument, Object result, long invokedAt, long returnedAt) {
+
+        static Call timed(String method, Object argument, Supplier<Object> action) {
+            long invokedAt = System.nanoTime();
+            Object result = action.get();
+            return new Call(method, argument, result, invokedAt, System.nanoTime());
+        }
+    }
+
+    @FunctionalInterface
+    interface Workload {
+        Call next(Random random);
+    }
+
+    /**
+     * Sequential specification: the state after the call, or {@code null} when the call's recorded result is
+     * impossible from {@code state}. States must be immutable values with {@code equals}.
+     */
+    @FunctionalInterface
+    interface Model<S> {
+        S apply(S state, Call call);
+    }
+
+    static List<Call> record(int threads, int callsPerThread, long seed, Workload workload) throws InterruptedException {
+        List<List<Call>> perThread = new ArrayList<>();
+        List<Thread> workers = new ArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < threads; t++) {
+            List<Call> calls = new ArrayList<>();
+            Random random = new Random(seed * 31 + t);
+            perThread.add(calls);
+            workers.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < callsPerThread; i++) {
+                    calls.add(workload.next(random));
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return perThread.stream().flatMap(List::stream).toList();
+    }
+
+    static <S> boolean isLinearizable(List<Call> history, S initial, Model<S> model) {
+        if (history.size() > 62) {
+            throw new IllegalArgumentException("History too long to check: " + history.size());
+        }
+        return search(history, 0L, initial, model, new HashSet<>());
+    }
+
+    private static <S> boolean search(List<Call> history, long done, S state, Model<S> model, Set<List<Object>> visited) {
+        int remaining = history.size() - Long.bitCount(done);
+        if (remaining == 0) {
+            return true;
+        }
+        if (!visited.add(List.of(done, state))) {
+            return false;
+        }
+        long firstReturn = Long.MAX_VALUE;
+        for (int i = 0; i < history.size(); i++) {
+            if ((done & (1L << i)) == 0) {
+                firstReturn = Math.min(firstReturn, history.get(i).returnedAt());
+            }
+        }
+        for (int i = 0; i < history.size(); i++) {
+            Call call = history.get(i);
+            // A call can go next only if nothing still pending returned before it was invoked.
+            if ((done & (1L << i)) != 0 || call.invokedAt() > firstReturn) {
+                continue;
+            }
+            S next = model.apply(state, call);
+            if (next != null && search(history, done | (1L << i), next, model, visited)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
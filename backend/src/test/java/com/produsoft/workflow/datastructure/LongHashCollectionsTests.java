@@ -0,0 +1,177 @@
+package com.produsoft.workflow.datastructure;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Differential checks of the open-addressing collections against {@link java.util.HashSet} and
+ * {@link java.util.HashMap}.
+ */
+class LongHashCollectionsTests {
+
+    private static final int INITIAL_MASK = LongHashing.DEFAULT_CAPACITY - 1;
+
+    @Test
+    void randomOperationsMatchJavaUtilAcrossResizes() {
+        Random random = new Random(11);
+        // Small bounds keep tables dense and probe runs long; the large one forces repeated resizes.
+        for (int bound : new int[] {40, 3_000, 200_000}) {
+            LongHashSet set = new LongHashSet();
+            LongObjectHashMap<String> map = new LongObjectHashMap<>();
+            Set<Long> expectedSet = new HashSet<>();
+            Map<Long, String> expectedMap = new HashMap<>();
+            for (int i = 0; i < 200_000; i++) {
+                // Mix in zero, negatives and widely spaced ids alongside small sequential ones.
+                long key = switch (random.nextInt(4)) {
+                    case 0 -> random.nextInt(bound);
+                    case 1 -> (long) random.nextInt(bound) << 32;
+                    case 2 -> -random.nextInt(bound);
+                    default -> random.nextInt(3);
+                };
+                switch (random.nextInt(3)) {
+                    case 0 -> {
+                        assertThat(set.add(key)).isEqualTo(expectedSet.add(key));
+                        assertThat(map.put(key, "v" + i)).isEqualTo(expectedMap.put(key, "v" + i));
+                    }
+                    case 1 -> {
+                        assertThat(set.remove(key)).isEqualTo(expectedSet.remove(key));
+                        assertThat(map.remove(key)).isEqualTo(expectedMap.remove(key));
+                    }
+                    default -> {
+                        assertThat(set.contains(key)).isEqualTo(expectedSet.contains(key));
+                        assertThat(map.get(key)).isEqualTo(expectedMap.get(key));
+                        assertThat(map.containsKey(key)).isEqualTo(expectedMap.containsKey(key));
+                    }
+                }
+            }
+            assertThat(set.size()).isEqualTo(expectedSet.size());
+            assertThat(map.size()).isEqualTo(expectedMap.size());
+            assertThat(contents(set)).isEqualTo(expectedSet);
+            assertThat(LongStream.of(set.toArray()).boxed().toList()).containsExactlyInAnyOrderElementsOf(expectedSet);
+            Map<Long, String> visited = new HashMap<>();
+            map.forEach(visited::put);
+            assertThat(visited).isEqualTo(expectedMap);
+        }
+    }
+
+    @Test
+    void removalInsideAProbeRunThatWrapsKeepsTheRestReachable() {
+        // Keys whose probe starts in the last two slots, so their run wraps round to the front of the table.
+        List<Long> wrapping = keysWithIdealSlotAtLeast(INITIAL_MASK - 1, 5);
+        for (int removed = 0; removed < wrapping.size(); removed++) {
+            LongHashSet set = new LongHashSet();
+            LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+            wrapping.forEach(key -> {
+                set.add(key);
+                map.put(key, key);
+            });
+
+            long victim = wrapping.get(removed);
+            assertThat(set.remove(victim)).isTrue();
+            assertThat(map.remove(victim)).isEqualTo(victim);
+
+            for (long key : wrapping) {
+                assertThat(set.contains(key)).isEqualTo(key != victim);
+                assertThat(map.get(key)).isEqualTo(key == victim ? null : key);
+            }
+            assertThat(set.size()).isEqualTo(wrapping.size() - 1);
+            assertThat(map.size()).isEqualTo(wrapping.size() - 1);
+        }
+    }
+
+    @Test
+    void zeroKeyIsStoredApartFromTheTable() {
+        LongHashSet set = new LongHashSet();
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+
+        assertThat(set.contains(0)).isFalse();
+        assertThat(set.add(0)).isTrue();
+        assertThat(set.add(0)).isFalse();
+        assertThat(set.size()).isEqualTo(1);
+        assertThat(set.toArray()).containsExactly(0L);
+        assertThat(map.get(0)).isNull();
+        assertThat(map.put(0, "zero")).isNull();
+        assertThat(map.put(0, "again")).isEqualTo("zero");
+        assertThat(map.size()).isEqualTo(1);
+
+        // Zero survives a resize and is unaffected by removing others.
+        for (long key = 1; key <= 100; key++) {
+            set.add(key);
+            map.put(key, "v" + key);
+        }
+        set.remove(1);
+        map.remove(1);
+        assertThat(set.contains(0)).isTrue();
+        assertThat(map.get(0)).isEqualTo("again");
+
+        assertThat(set.remove(0)).isTrue();
+        assertThat(set.remove(0)).isFalse();
+        assertThat(map.remove(0)).isEqualTo("again");
+        assertThat(map.containsKey(0)).isFalse();
+        assertThat(set.size()).isEqualTo(99);
+        assertThat(map.size()).isEqualTo(99);
+    }
+
+    @Test
+    void clearEmptiesTheTableForReuse() {
+        LongHashSet set = new LongHashSet();
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        for (long key = 0; key < 50; key++) {
+            set.add(key);
+            map.put(key, "v");
+        }
+        set.clear();
+        map.clear();
+        assertThat(set.isEmpty()).isTrue();
+        assertThat(map.isEmpty()).isTrue();
+        assertThat(set.contains(0)).isFalse();
+        assertThat(map.get(7)).isNull();
+        assertThat(set.add(7)).isTrue();
+        assertThat(map.put(7, "w")).isNull();
+    }
+
+    @Test
+    void enumKeyedMapKeepsOneTablePerConstant() {
+        EnumKeyedLongObjectHashMap<Slot, String> map = new EnumKeyedLongObjectHashMap<>(Slot.class);
+        map.put(Slot.FIRST, 42, "first");
+        map.put(Slot.SECOND, 42, "second");
+
+        assertThat(map.get(Slot.FIRST, 42)).isEqualTo("first");
+        assertThat(map.get(Slot.SECOND, 42)).isEqualTo("second");
+        assertThat(map.containsKey(Slot.THIRD, 42)).isFalse();
+        assertThat(map.size()).isEqualTo(2);
+
+        assertThat(map.remove(Slot.FIRST, 42)).isEqualTo("first");
+        assertThat(map.of(Slot.SECOND).get(42)).isEqualTo("second");
+        assertThat(map.size()).isEqualTo(1);
+        map.clear();
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    private enum Slot { FIRST, SECOND, THIRD }
+
+    private static List<Long> keysWithIdealSlotAtLeast(int slot, int count) {
+        List<Long> keys = new ArrayList<>();
+        for (long key = 1; keys.size() < count; key++) {
+            if ((LongHashing.mix(key) & INITIAL_MASK) >= slot) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static Set<Long> contents(LongHashSet set) {
+        Set<Long> values = new HashSet<>();
+        set.forEach(values::add);
+        return values;
+    }
+}
@@ -0,0 +1,99 @@
+package com.produsoft.workflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.produsoft.workflow.domain.AiConversation;
+import com.produsoft.workflow.domain.AiMessage;
+import com.produsoft.workflow.domain.AiMessageRole;
+import com.produsoft.workflow.dto.AiConversationPageResponse;
+import com.produsoft.workflow.dto.AiConversationSummaryResponse;
+import com.produsoft.workflow.repository.AiConversationRepository;
+import com.produsoft.workflow.repository.AiMessageRepository;
+import jakarta.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class AiConversationListingTests {
+
+    @Autowired
+    private AiConversationService conversationService;
+
+    @Autowired
+    private AiConversationRepository conversationRepository;
+
+    @Autowired
+    private AiMessageRepository messageRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void listingRunsOneStatementWhateverTheNumberOfConversations() {
+        createConversations("few-conversations", 3);
+        createConversations("many-conversations", 30);
+
+        long few = statementsFor(() -> conversationService.listConversations("few-conversations", null, 50));
+        long many = statementsFor(() -> conversationService.listConversations("many-conversations", null, 50));
+
+        assertThat(few).isEqualTo(1);
+        assertThat(many).isEqualTo(few);
+    }
+
+    @Test
+    void listingShowsTheLatestMessageTruncatedAndPagesByCursor() {
+        createConversations("paged-conversations", 5);
+
+        AiConversationPageResponse first = conversationService.listConversations("paged-conversations", null, 3);
+        assertThat(first.hasMore()).isTrue();
+        assertThat(first.items()).extracting(AiConversationSummaryResponse::title)
+            .containsExactly("Conversation 4", "Conversation 3", "Conversation 2");
+        AiConversationSummaryResponse latest = first.items().get(0);
+        assertThat(latest.lastMessagePreview()).hasSize(120).endsWith("...").startsWith("reply 4 ");
+
+        AiConversationPageResponse second = conversationService.listConversations(
+            "paged-conversations", first.nextCursor(), 3);
+        assertThat(second.hasMore()).isFalse();
+        assertThat(second.nextCursor()).isNull();
+        assertThat(second.items()).extracting(AiConversationSummaryResponse::title)
+            .containsExactly("Conversation 1", "Conversation 0");
+        assertThat(second.items().get(1).lastMessagePreview()).isEqualTo("reply 0");
+    }
+
+    private void createConversations(String username, int count) {
+        Instant base = Instant.parse("2025-01-01T00:00:00Z");
+        List<AiMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            AiConversation conversation = new AiConversation();
+            conversation.setCreatedBy(username);
+            conversation.setTitle("Conversation " + i);
+            conversation.setUpdatedAt(base.plusSeconds(i));
+            conversationRepository.save(conversation);
+            messages.add(message(conversation, AiMessageRole.USER, "question " + i));
+            String reply = i == 0 ? "reply 0" : "reply " + i + " " + "detail ".repeat(30);
+            messages.add(message(conversation, AiMessageRole.ASSISTANT, reply));
+        }
+        messageRepository.saveAll(messages);
+    }
+
+    private static AiMessage message(AiConversation conversation, AiMessageRole role, String content) {
+        AiMessage message = new AiMessage();
+        message.setConversation(conversation);
+        message.setRole(role);
+        message.setContent(content);
+        return message;
+    }
+
+    private long statementsFor(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,26 @@
+package com.produsoft.workflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class AiIntentRouterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AiIntentRouter router = new AiIntentRouter(new WipCounters(null, null), null, meterRegistry);
+
+    @Test
+    void blockedQuestionsGoToTheModel() {
+        assertThat(router.answer("How many orders are blocked?")).isEmpty();
+        assertThat(router.answer("how many orders are blocked in assembly")).isEmpty();
+        assertThat(meterRegistry.get("ai.intent.routing").tag("route", "model").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void stateCountsAreStillAnsweredDirectly() {
+        assertThat(router.answer("how many orders are pending in assembly"))
+            .contains("0 orders are pending in assembly.");
+        assertThat(meterRegistry.get("ai.intent.routing").tag("route", "state_count").counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,91 @@
+package com.produsoft.workflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.produsoft.workflow.config.AiStreamingProperties;
+import com.produsoft.workflow.exception.AiCapacityException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AiStreamExecutorTests {
+
+    private static final Consumer<Exception> NOT_ABANDONED = error -> {
+        throw new AssertionError("Stream abandoned", error);
+    };
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private AiStreamExecutor executor;
+
+    @BeforeEach
+    void createExecutor() {
+        AiStreamingProperties properties = new AiStreamingProperties();
+        properties.setMaxConcurrentStreams(1);
+        properties.setMaxQueuedStreams(1);
+        executor = new AiStreamExecutor(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void shutdown() {
+        release.countDown();
+        executor.shutdown();
+    }
+
+    @Test
+    void queuesUpToTheLimitAndRejectsBeyondIt() throws Exception {
+        CountDownLatch firstRunning = new CountDownLatch(1);
+        CompletableFuture<Void> secondRan = new CompletableFuture<>();
+        executor.submit(() -> {
+            firstRunning.countDown();
+            awaitRelease();
+        }, NOT_ABANDONED);
+        assertThat(firstRunning.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.submit(() -> secondRan.complete(null), NOT_ABANDONED);
+
+        assertThatThrownBy(() -> executor.submit(() -> { }, NOT_ABANDONED)).isInstanceOf(AiCapacityException.class);
+        assertThat(executor.active()).isEqualTo(1);
+        assertThat(executor.queued()).isEqualTo(1);
+        assertThat(meterRegistry.get("ai.stream.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        secondRan.get(5, TimeUnit.SECONDS);
+        // The slot frees up once the streams return, so a new stream is admitted again.
+        CompletableFuture<Void> thirdRan = new CompletableFuture<>();
+        executor.submit(() -> thirdRan.complete(null), NOT_ABANDONED);
+        thirdRan.get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void handsQueuedStreamsToTheirCallbackOnShutdown() throws Exception {
+        CountDownLatch firstRunning = new CountDownLatch(1);
+        CompletableFuture<Exception> abandoned = new CompletableFuture<>();
+        executor.submit(() -> {
+            firstRunning.countDown();
+            awaitRelease();
+        }, NOT_ABANDONED);
+        assertThat(firstRunning.await(5, TimeUnit.SECONDS)).isTrue();
+        executor.submit(() -> abandoned.completeExceptionally(new AssertionError("Queued stream ran")),
+            abandoned::complete);
+        assertThat(executor.queued()).isEqualTo(1);
+
+        executor.shutdown();
+
+        assertThat(abandoned.get(5, TimeUnit.SECONDS)).isInstanceOf(AiCapacityException.class);
+        assertThatThrownBy(() -> executor.submit(() -> { }, NOT_ABANDONED)).isInstanceOf(AiCapacityException.class);
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.produsoft.workflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import com.produsoft.workflow.domain.Order;
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.dto.CreateOrderRequest;
+import com.produsoft.workflow.repository.OrderStageStatusRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Races two operators for the same stage after both have read it as claimable, so the loser is
+ * rejected by the conditional UPDATE rather than by the up-front state check.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ClaimStageConcurrencyTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OrderWorkflowService workflowService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoSpyBean
+    private OrderStageStatusRepository stageStatusRepository;
+
+    @Test
+    void exactlyOneOfTwoConcurrentClaimsWins() throws Exception {
+        Order order = workflowService.createOrder(new CreateOrderRequest("CLAIM-RACE-1", 1, null));
+        CyclicBarrier bothRead = new CyclicBarrier(2);
+        // The repository is an interface proxy, so the spy's default answer is what delegates to the real one.
+        Answer<?> repository = Mockito.mockingDetails(stageStatusRepository).getMockCreationSettings().getDefaultAnswer();
+        doAnswer(invocation -> {
+            Object rows = repository.answer(invocation);
+            bothRead.await(10, TimeUnit.SECONDS);
+            return rows;
+        }).when(stageStatusRepository).findStageRowsByOrderId(eq(order.getId()));
+        double conflictsBefore = conflicts();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Integer> statuses = new ArrayList<>();
+        try {
+            List<Future<Integer>> claims = new ArrayList<>();
+            for (String operator : List.of("op-a", "op-b")) {
+                claims.add(executor.submit(() -> claim(order.getId(), operator)));
+            }
+            for (Future<Integer> claim : claims) {
+                statuses.add(claim.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(statuses).containsExactlyInAnyOrder(200, 409);
+        assertThat(conflicts() - conflictsBefore).isEqualTo(1);
+        assertThat(workflowService.findStagesForOrder(order.getId()))
+            .filteredOn(status -> status.getStage() == StageType.PREPARATION)
+            .singleElement()
+            .satisfies(status -> {
+                assertThat(status.getState()).isEqualTo(StageState.IN_PROGRESS);
+                assertThat(status.getAssignee()).isIn("op-a", "op-b");
+            });
+    }
+
+    private int claim(Long orderId, String operator) throws Exception {
+        return mockMvc.perform(post("/api/operator/orders/{orderId}/stages/preparation/claim", orderId)
+                .with(user(operator).roles("OPERATOR"))
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"assignee\":\"" + operator + "\"}"))
+            .andReturn()
+            .getResponse()
+            .getStatus();
+    }
+
+    private double conflicts() {
+        return meterRegistry.get("workflow.claim.conflicts").tag("stage", StageType.PREPARATION.name()).counter().count();
+    }
+}
@@ -0,0 +1,203 @@
+package com.produsoft.workflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.produsoft.workflow.config.AiStreamingProperties;
+import com.produsoft.workflow.config.OllamaClientProperties;
+import com.produsoft.workflow.dto.AiChatRequest;
+import com.produsoft.workflow.exception.AiCapacityException;
+import com.produsoft.workflow.exception.AiClientException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs {@link OllamaModelBackend} against a local stub of Ollama's {@code /api/chat}.
+ */
+class OllamaModelBackendTests {
+
+    private static final String REPLY = "{\"model\":\"stub\",\"message\":{\"role\":\"assistant\",\"content\":\"%s\"},\"done\":true}";
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OllamaClientProperties properties = new OllamaClientProperties();
+    private ExecutorService serverExecutor;
+    private HttpServer server;
+    private volatile StubHandler handler;
+    private OllamaModelBackend chatService;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        serverExecutor = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(serverExecutor);
+        server.createContext("/api/chat", exchange -> {
+            int call = calls.incrementAndGet();
+            try (exchange) {
+                exchange.getRequestBody().readAllBytes();
+                handler.handle(exchange, call);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        properties.setHost("http://127.0.0.1:" + server.getAddress().getPort());
+        properties.setApiKey("test-key");
+    }
+
+    @AfterEach
+    void stopServer() {
+        if (chatService != null) {
+            chatService.shutdown();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    void returnsTheModelReplyAndRecordsLatency() {
+        handler = (exchange, call) -> respond(exchange, 200, REPLY.formatted("hello"));
+        chatService = newService();
+
+        assertThat(chatService.chat(request(false)).content()).isEqualTo("hello");
+        assertThat(meterRegistry.get("ai.upstream.requests").tag("mode", "chat").tag("outcome", "success")
+            .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void hedgesASlowRequestAndUsesTheFirstAnswer() {
+        properties.setHedgeDelay(Duration.ofMillis(100));
+        handler = (exchange, call) -> {
+            if (call == 1) {
+                Thread.sleep(3000);
+            }
+            respond(exchange, 200, REPLY.formatted("answer " + call));
+        };
+        chatService = newService();
+
+        long started = System.nanoTime();
+        assertThat(chatService.chat(request(false)).content()).isEqualTo("answer 2");
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        assertThat(calls.get()).isEqualTo(2);
+        assertThat(meterRegistry.get("ai.upstream.hedges").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void timesOutASlowRequest() {
+        properties.setRequestTimeout(Duration.ofMillis(200));
+        handler = (exchange, call) -> {
+            Thread.sleep(3000);
+            respond(exchange, 200, REPLY.formatted("too late"));
+        };
+        chatService = newService();
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> chatService.chat(request(false))).isInstanceOf(AiClientException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+    }
+
+    @Test
+    void opensTheCircuitAfterConsecutiveFailuresAndClosesItAfterASuccessfulTrial() throws InterruptedException {
+        properties.setCircuitFailureThreshold(3);
+        properties.setCircuitOpenDuration(Duration.ofMillis(300));
+        handler = (exchange, call) -> respond(exchange, 500, "{\"error\":\"overloaded\"}");
+        chatService = newService();
+
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> chatService.chat(request(false))).isInstanceOf(AiClientException.class);
+        }
+        assertThatThrownBy(() -> chatService.chat(request(false))).isInstanceOf(AiCapacityException.class);
+        assertThatThrownBy(() -> chatService.openStream(request(true))).isInstanceOf(AiCapacityException.class);
+        assertThat(calls.get()).isEqualTo(3);
+
+        Thread.sleep(400);
+        handler = (exchange, call) -> respond(exchange, 200, REPLY.formatted("recovered"));
+        assertThat(chatService.chat(request(false)).content()).isEqualTo("recovered");
+        assertThat(chatService.chat(request(false)).content()).isEqualTo("recovered");
+        assertThat(meterRegistry.get("ai.upstream.rejected").tag("reason", "circuit_open").counter().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void rejectsCallsBeyondTheBulkhead() throws Exception {
+        properties.setMaxConcurrentRequests(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch arrived = new CountDownLatch(1);
+        handler = (exchange, call) -> {
+            arrived.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            respond(exchange, 200, REPLY.formatted("first"));
+        };
+        chatService = newService();
+
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> chatService.chat(request(false)).content());
+        assertThat(arrived.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThatThrownBy(() -> chatService.chat(request(false))).isInstanceOf(AiCapacityException.class);
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsStreamingPastTheResponseTimeoutOnceTheModelHasStarted() {
+        properties.setStreamResponseTimeout(Duration.ofMillis(200));
+        handler = (exchange, call) -> {
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream body = exchange.getResponseBody();
+            for (String token : List.of("one ", "two ", "three")) {
+                body.write(("{\"message\":{\"role\":\"assistant\",\"content\":\"" + token + "\"},\"done\":false}\n")
+                    .getBytes(StandardCharsets.UTF_8));
+                body.flush();
+                Thread.sleep(150);
+            }
+            body.write("{\"done\":true}\n".getBytes(StandardCharsets.UTF_8));
+        };
+        chatService = newService();
+
+        try (AiChatStream stream = chatService.openStream(request(true))) {
+            while (stream.nextFrame() != null) {
+                // drain
+            }
+            assertThat(stream.reply()).isEqualTo("one two three");
+        }
+        assertThat(meterRegistry.get("ai.upstream.requests").tag("mode", "stream").tag("outcome", "success")
+            .timer().count()).isEqualTo(1);
+    }
+
+    private OllamaModelBackend newService() {
+        return new OllamaModelBackend(properties, new AiStreamingProperties(), new ObjectMapper(), meterRegistry);
+    }
+
+    private static AiChatRequest request(boolean stream) {
+        return new AiChatRequest(null, List.of(new AiChatRequest.Message("user", "hi")), stream);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    @FunctionalInterface
+    private interface StubHandler {
+        void handle(HttpExchange exchange, int call) throws IOException, InterruptedException;
+    }
+}
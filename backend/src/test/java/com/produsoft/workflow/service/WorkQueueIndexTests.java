@@ -0,0 +1,69 @@
+package com.produsoft.workflow.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.produsoft.workflow.domain.StageState;
+import com.produsoft.workflow.domain.StageType;
+import com.produsoft.workflow.dto.OrderMapper;
+import com.produsoft.workflow.dto.OrderResponse;
+import com.produsoft.workflow.dto.OrderStageStatusResponse;
+import com.produsoft.workflow.dto.WorkQueueItemResponse;
+import com.produsoft.workflow.event.OrderChangedEvent;
+import com.produsoft.workflow.event.WorkflowAction;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Applies order changes to {@link WorkQueueIndex} out of commit order, as concurrent transactions can.
+ */
+class WorkQueueIndexTests {
+
+    private static final Instant CREATED = Instant.parse("2025-01-01T00:00:00Z");
+
+    private final WorkQueueIndex index = new WorkQueueIndex(null, new OrderMapper(null));
+
+    @Test
+    void olderRemovalDoesNotDeleteNewerEntry() {
+        index.onOrderChanged(change(1, StageState.PENDING, 1));
+        index.onOrderChanged(change(1, StageState.REWORK, 3));
+        index.onOrderChanged(change(1, StageState.COMPLETED, 2));
+
+        assertThat(index.next(StageType.PREPARATION))
+            .map(WorkQueueItemResponse::stageState)
+            .contains(StageState.REWORK);
+    }
+
+    @Test
+    void olderPutDoesNotResurrectRemovedEntry() {
+        index.onOrderChanged(change(2, StageState.PENDING, 1));
+        index.onOrderChanged(change(2, StageState.COMPLETED, 3));
+        index.onOrderChanged(change(2, StageState.REWORK, 2));
+
+        assertThat(index.next(StageType.PREPARATION)).isEmpty();
+    }
+
+    @Test
+    void olderPutArrivingBeforeTheEntryExistsIsRejectedByTheTombstone() {
+        index.onOrderChanged(change(3, StageState.COMPLETED, 2));
+        index.onOrderChanged(change(3, StageState.PENDING, 1));
+
+        assertThat(index.next(StageType.PREPARATION)).isEmpty();
+
+        index.onOrderChanged(change(3, StageState.REWORK, 4));
+
+        assertThat(index.next(StageType.PREPARATION))
+            .map(WorkQueueItemResponse::stageState)
+            .contains(StageState.REWORK);
+    }
+
+    private static OrderChangedEvent change(long orderId, StageState state, long second) {
+        Instant version = CREATED.plusSeconds(second);
+        OrderStageStatusResponse stage = new OrderStageStatusResponse(
+            orderId, StageType.PREPARATION, state, null, null, null, null, null, null, null, null, null, version, List.of());
+        OrderResponse order = new OrderResponse(
+            orderId, "WQ-" + orderId, 1, StageType.PREPARATION, state, CREATED, version, null, List.of(stage));
+        return new OrderChangedEvent(WorkflowAction.CLAIMED, order, Map.of(), null);
+    }
+}
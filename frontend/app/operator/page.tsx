@@ -1,12 +1,13 @@
 'use client';
 
-import { useCallback, useEffect, useMemo, useState } from 'react';
+import { useCallback, useEffect, useMemo, useRef, useState } from 'react';
 import { InlineLoading, Tag, Toggle } from '@carbon/react';
 import { RequireAuth } from '@/components/RequireAuth';
 import { Modal } from '@/components/Modal';
 import { StageBadge } from '@/components/StageBadge';
 import { AiChatPanel } from '@/components/AiChatPanel';
 import { useAuth } from '@/hooks/useAuth';
+import { useWorkflowEvents } from '@/hooks/useWorkflowEvents';
 import { WorkflowApi } from '@/lib/api';
 import type { ChecklistItem, StageType, WorkQueueItem } from '@/types/api';
 
@@ -82,6 +83,26 @@ function OperatorView() {
     loadQueue().catch((err) => console.error(err));
   }, [loadQueue]);
 
+  // Bursts of changes to this stage collapse into a single queue reload.
+  const reloadTimer = useRef<ReturnType<typeof setTimeout> | null>(null);
+  useEffect(
+    () => () => {
+      if (reloadTimer.current) {
+        clearTimeout(reloadTimer.current);
+      }
+    },
+    [],
+  );
+  useWorkflowEvents(token, [stage], () => {
+    if (reloadTimer.current) {
+      clearTimeout(reloadTimer.current);
+    }
+    reloadTimer.current = setTimeout(() => {
+      reloadTimer.current = null;
+      loadQueue().catch((err) => console.error(err));
+    }, 300);
+  });
+
   const closeModal = () => {
     setModalState(null);
     setServiceTime('');
@@ -6,6 +6,7 @@ import { AiChatPanel } from '@/components/AiChatPanel';
 import { RequireAuth } from '@/components/RequireAuth';
 import { StageBadge } from '@/components/StageBadge';
 import { useAuth } from '@/hooks/useAuth';
+import { useWorkflowEvents } from '@/hooks/useWorkflowEvents';
 import { WorkflowApi } from '@/lib/api';
 import type { OrderResponse, OrderStageStatus, StageType, WipSummaryResponse } from '@/types/api';
 
@@ -15,6 +16,8 @@ const stageOrder: Record<StageType, number> = {
   DELIVERY: 2,
 };
 
+const ORDERS_PAGE_SIZE = 100;
+
 const stageLabels: Record<StageType, string> = {
   PREPARATION: 'Preparation',
   ASSEMBLY: 'Assembly',
@@ -43,6 +46,8 @@ export default function SupervisorDashboard() {
 function SupervisorView() {
   const { token, user } = useAuth();
   const [orders, setOrders] = useState<OrderResponse[]>([]);
+  const [nextCursor, setNextCursor] = useState<string | null>(null);
+  const [loadingMore, setLoadingMore] = useState<boolean>(false);
   const [summary, setSummary] = useState<WipSummaryResponse | null>(null);
   const [loading, setLoading] = useState<boolean>(false);
   const [error, setError] = useState<string | null>(null);
@@ -64,10 +69,11 @@ function SupervisorView() {
     setError(null);
     try {
       const [ordersResponse, summaryResponse] = await Promise.all([
-        WorkflowApi.listOrders(token),
+        WorkflowApi.listOrders(token, { limit: ORDERS_PAGE_SIZE }),
         WorkflowApi.wipSummary(token),
       ]);
-      setOrders(ordersResponse);
+      setOrders(ordersResponse.items);
+      setNextCursor(ordersResponse.nextCursor);
       setSummary(summaryResponse);
     } catch (err) {
       const message = err instanceof Error ? err.message : 'Failed to load supervisor data';
@@ -81,6 +87,46 @@ function SupervisorView() {
     loadData().catch((err) => console.error(err));
   }, [loadData]);
 
+  useWorkflowEvents(token, null, (event) => {
+    switch (event.type) {
+      case 'wip':
+        setSummary(event.summary);
+        return;
+      case 'order': {
+        const changed = event.event.order;
+        setOrders((previous) => {
+          const index = previous.findIndex((order) => order.id === changed.id);
+          if (index !== -1) {
+            const next = previous.slice();
+            next[index] = changed;
+            return next;
+          }
+          // New orders only belong in the list once every page is loaded; otherwise the next page brings them.
+          return nextCursor ? previous : [...previous, changed];
+        });
+        return;
+      }
+      case 'resync':
+        loadData().catch((err) => console.error(err));
+        return;
+    }
+  });
+
+  const loadMoreOrders = useCallback(async () => {
+    if (!token || !nextCursor) return;
+    setLoadingMore(true);
+    try {
+      const page = await WorkflowApi.listOrders(token, { cursor: nextCursor, limit: ORDERS_PAGE_SIZE });
+      setOrders((previous) => [...previous, ...page.items]);
+      setNextCursor(page.nextCursor);
+    } catch (err) {
+      const message = err instanceof Error ? err.message : 'Failed to load more orders';
+      setError(message);
+    } finally {
+      setLoadingMore(false);
+    }
+  }, [token, nextCursor]);
+
   const closeActionModal = () => {
     setActionModal(null);
     setModalNotes('');
@@ -315,6 +361,13 @@ function SupervisorView() {
             </article>
           ))}
         </div>
+        {nextCursor && (
+          <div className="table__empty">
+            <button type="button" className="link-button" onClick={loadMoreOrders} disabled={loadingMore}>
+              {loadingMore ? 'Loading…' : 'Load more orders'}
+            </button>
+          </div>
+        )}
       </section>
 
       <AiChatPanel />
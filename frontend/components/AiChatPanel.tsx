@@ -31,16 +31,20 @@ import styles from './AiChatPanel.module.css';
 export function AiChatPanel() {
   const { token, user } = useAuth();
   const [conversations, setConversations] = useState<AiConversationSummaryResponse[]>([]);
+  const [conversationsCursor, setConversationsCursor] = useState<string | null>(null);
+  const [loadingMoreConversations, setLoadingMoreConversations] = useState<boolean>(false);
   const [selectedConversationId, setSelectedConversationId] = useState<number | null>(null);
   const [activeConversation, setActiveConversation] = useState<AiConversationResponse | null>(null);
   const [loadingList, setLoadingList] = useState<boolean>(false);
   const [loadingConversation, setLoadingConversation] = useState<boolean>(false);
+  const [loadingOlder, setLoadingOlder] = useState<boolean>(false);
   const [messageInput, setMessageInput] = useState<string>('');
   const [error, setError] = useState<string | null>(null);
   const [sending, setSending] = useState<boolean>(false);
   const [autoSelectEnabled, setAutoSelectEnabled] = useState<boolean>(false);
   const messagesContainerRef = useRef<HTMLDivElement | null>(null);
   const tempIdRef = useRef<number>(-1);
+  const preserveScrollRef = useRef<number | null>(null);
   const streamingControllerRef = useRef<AbortController | null>(null);
   const streamingMessageIdRef = useRef<number | null>(null);
   const [streamingMessageId, setStreamingMessageId] = useState<number | null>(null);
@@ -56,8 +60,9 @@ export function AiChatPanel() {
     setLoadingList(true);
     setError(null);
     try {
-      const response = await WorkflowApi.listAiConversations(token);
-      setConversations(response);
+      const page = await WorkflowApi.listAiConversations(token);
+      setConversations(page.items);
+      setConversationsCursor(page.hasMore ? page.nextCursor : null);
     } catch (err) {
       const message = err instanceof Error ? err.message : 'Failed to load conversations';
       setError(message);
@@ -137,9 +142,44 @@ export function AiChatPanel() {
     if (!container) {
       return;
     }
+    const previousScrollHeight = preserveScrollRef.current;
+    if (previousScrollHeight !== null) {
+      // Older messages were prepended; keep the view on the message that was at the top.
+      preserveScrollRef.current = null;
+      container.scrollTop += container.scrollHeight - previousScrollHeight;
+      return;
+    }
     container.scrollTo({ top: container.scrollHeight, behavior: 'smooth' });
   }, [messageCount]);
 
+  const handleLoadOlder = useCallback(async () => {
+    if (!token || !activeConversation || activeConversation.nextBefore === null || loadingOlder) {
+      return;
+    }
+    const conversationId = activeConversation.id;
+    setLoadingOlder(true);
+    setError(null);
+    try {
+      const page = await WorkflowApi.getAiMessages(conversationId, token, activeConversation.nextBefore);
+      preserveScrollRef.current = messagesContainerRef.current?.scrollHeight ?? null;
+      setActiveConversation((prev) => {
+        if (!prev || prev.id !== conversationId) {
+          return prev;
+        }
+        return {
+          ...prev,
+          messages: [...page.messages, ...prev.messages],
+          nextBefore: page.nextBefore,
+        };
+      });
+    } catch (err) {
+      const message = err instanceof Error ? err.message : 'Failed to load earlier messages';
+      setError(message);
+    } finally {
+      setLoadingOlder(false);
+    }
+  }, [token, activeConversation, loadingOlder]);
+
   const handleNewConversation = () => {
     streamingControllerRef.current?.abort();
     streamingControllerRef.current = null;
@@ -156,6 +196,27 @@ export function AiChatPanel() {
     void loadConversations();
   };
 
+  const handleLoadMoreConversations = async () => {
+    if (!token || !conversationsCursor || loadingMoreConversations) {
+      return;
+    }
+    setLoadingMoreConversations(true);
+    setError(null);
+    try {
+      const page = await WorkflowApi.listAiConversations(token, { cursor: conversationsCursor });
+      setConversations((prev) => {
+        const known = new Set(prev.map((conversation) => conversation.id));
+        return [...prev, ...page.items.filter((conversation) => !known.has(conversation.id))];
+      });
+      setConversationsCursor(page.hasMore ? page.nextCursor : null);
+    } catch (err) {
+      const message = err instanceof Error ? err.message : 'Failed to load conversations';
+      setError(message);
+    } finally {
+      setLoadingMoreConversations(false);
+    }
+  };
+
   const handleSend = useCallback(async () => {
     if (!token) {
       setError('You must be signed in to chat with the assistant.');
@@ -222,6 +283,7 @@ export function AiChatPanel() {
             createdAt: timestamp,
             updatedAt: timestamp,
             messages: [],
+            nextBefore: null,
           };
         return {
           ...seed,
@@ -261,7 +323,7 @@ export function AiChatPanel() {
           } else if (event.type === 'conversation') {
             streamingMessageIdRef.current = null;
             setStreamingMessageId(null);
-            setActiveConversation(event.conversation);
+            setActiveConversation((prev) => mergeReply(prev, event.conversation));
             setSelectedConversationId(event.conversation.id);
             setAutoSelectEnabled(true);
             refreshedConversations = true;
@@ -346,9 +408,11 @@ export function AiChatPanel() {
     setError(null);
     try {
       const response = await WorkflowApi.renameAiConversation(conversation.id, trimmed, token);
-      if (activeConversation?.id === conversation.id) {
-        setActiveConversation(response);
-      }
+      setActiveConversation((prev) =>
+        prev && prev.id === response.id
+          ? { ...prev, title: response.title, updatedAt: response.updatedAt }
+          : prev,
+      );
       await loadConversations();
     } catch (err) {
       const message = err instanceof Error ? err.message : 'Failed to rename conversation';
@@ -458,6 +522,19 @@ export function AiChatPanel() {
                         <InlineLoading status="active" description="Loading conversation" />
                       </div>
                     )}
+                    {!loadingConversation && activeConversation && activeConversation.nextBefore !== null && (
+                      <div className={styles.placeholder}>
+                        <Button
+                          kind="ghost"
+                          size="sm"
+                          type="button"
+                          onClick={() => void handleLoadOlder()}
+                          disabled={loadingOlder}
+                        >
+                          {loadingOlder ? 'Loading...' : 'Load earlier messages'}
+                        </Button>
+                      </div>
+                    )}
                     {!loadingConversation && activeConversation && activeConversation.messages.length === 0 && (
                       <div className={styles.placeholder}>Send a question to begin.</div>
                     )}
@@ -584,6 +661,17 @@ export function AiChatPanel() {
                     })}
                   </ContainedList>
                 )}
+                {conversationsCursor && (
+                  <Button
+                    kind="ghost"
+                    size="sm"
+                    type="button"
+                    onClick={() => void handleLoadMoreConversations()}
+                    disabled={loadingMoreConversations}
+                  >
+                    {loadingMoreConversations ? 'Loading...' : 'Show older conversations'}
+                  </Button>
+                )}
               </Tile>
             </Layer>
           </div>
@@ -663,3 +751,26 @@ function formatTimestamp(iso: string) {
   }
   return date.toLocaleTimeString([], { hour: '2-digit', minute: '2-digit' });
 }
+
+/**
+ * Replies carry only the question and answer just stored; swap them in for the optimistic placeholders and
+ * keep the messages already loaded.
+ */
+function mergeReply(
+  current: AiConversationResponse | null,
+  reply: AiConversationResponse,
+): AiConversationResponse {
+  if (!current || current.id !== reply.id) {
+    return reply;
+  }
+  const replyIds = new Set(reply.messages.map((message) => message.id));
+  return {
+    ...current,
+    title: reply.title,
+    updatedAt: reply.updatedAt,
+    messages: [
+      ...current.messages.filter((message) => message.id > 0 && !replyIds.has(message.id)),
+      ...reply.messages,
+    ],
+  };
+}
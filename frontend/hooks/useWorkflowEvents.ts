@@ -0,0 +1,69 @@
+'use client';
+
+import { useEffect, useRef } from 'react';
+import { WorkflowApi } from '@/lib/api';
+import type { StageType, WorkflowStreamEvent } from '@/types/api';
+
+const RECONNECT_BASE_DELAY_MS = 1000;
+const RECONNECT_MAX_DELAY_MS = 30000;
+
+/**
+ * Keeps a server-sent event subscription to `/api/events` open while a token is available,
+ * reconnecting with backoff and resuming from the last event id the server sent.
+ */
+export function useWorkflowEvents(
+  token: string | null | undefined,
+  stages: StageType[] | null,
+  onEvent: (event: WorkflowStreamEvent) => void,
+) {
+  const handlerRef = useRef(onEvent);
+  handlerRef.current = onEvent;
+  const stageKey = stages ? stages.join(',') : '';
+
+  useEffect(() => {
+    if (!token) {
+      return;
+    }
+    const controller = new AbortController();
+    const subscribedStages = stageKey ? (stageKey.split(',') as StageType[]) : undefined;
+    let lastEventId: string | null = null;
+    let attempt = 0;
+    let reconnectTimer: ReturnType<typeof setTimeout> | null = null;
+
+    const connect = async () => {
+      try {
+        await WorkflowApi.subscribeWorkflowEvents(
+          token,
+          { stages: subscribedStages, lastEventId },
+          (event, eventId) => {
+            attempt = 0;
+            if (eventId) {
+              lastEventId = eventId;
+            }
+            handlerRef.current(event);
+          },
+          controller.signal,
+        );
+      } catch {
+        // Fall through to reconnect unless the subscription was cancelled.
+      }
+      if (controller.signal.aborted) {
+        return;
+      }
+      const delay = Math.min(RECONNECT_MAX_DELAY_MS, RECONNECT_BASE_DELAY_MS * 2 ** attempt);
+      attempt += 1;
+      reconnectTimer = setTimeout(() => {
+        void connect();
+      }, delay);
+    };
+
+    void connect();
+
+    return () => {
+      controller.abort();
+      if (reconnectTimer) {
+        clearTimeout(reconnectTimer);
+      }
+    };
+  }, [token, stageKey]);
+}
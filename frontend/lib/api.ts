@@ -1,7 +1,11 @@
 import type {
+  AiConversationPageResponse,
   AiConversationResponse,
-  AiConversationSummaryResponse,
+  AiMessagePageResponse,
   AuthUser,
+  BatchStageAction,
+  BatchStageActionResponse,
+  OrderPageResponse,
   OrderResponse,
   StageState,
   StageType,
@@ -9,6 +13,8 @@ import type {
   WorkQueueItem,
   OrderStageStatus,
   AiStreamEvent,
+  WorkflowOrderEvent,
+  WorkflowStreamEvent,
 } from '@/types/api';
 
 const API_BASE_URL = process.env.NEXT_PUBLIC_API_BASE_URL ?? 'http://localhost:8080';
@@ -60,7 +66,31 @@ async function apiFetch<T>(
 
 export const WorkflowApi = {
   me: (token: string) => apiFetch<AuthUser>('/auth/me', { method: 'GET' }, token),
-  listOrders: (token: string) => apiFetch<OrderResponse[]>('/api/orders', { method: 'GET' }, token),
+  listOrders: (
+    token: string,
+    query: {
+      cursor?: string | null;
+      limit?: number;
+      overallState?: StageState[];
+      currentStage?: StageType[];
+      minPriority?: number;
+      maxPriority?: number;
+      updatedFrom?: string;
+      updatedTo?: string;
+    } = {},
+  ) => {
+    const params = new URLSearchParams();
+    if (query.cursor) params.set('cursor', query.cursor);
+    if (query.limit !== undefined) params.set('limit', String(query.limit));
+    query.overallState?.forEach((state) => params.append('overallState', state));
+    query.currentStage?.forEach((stage) => params.append('currentStage', stage));
+    if (query.minPriority !== undefined) params.set('minPriority', String(query.minPriority));
+    if (query.maxPriority !== undefined) params.set('maxPriority', String(query.maxPriority));
+    if (query.updatedFrom) params.set('updatedFrom', query.updatedFrom);
+    if (query.updatedTo) params.set('updatedTo', query.updatedTo);
+    const search = params.toString();
+    return apiFetch<OrderPageResponse>(`/api/orders${search ? `?${search}` : ''}`, { method: 'GET' }, token);
+  },
   getOrder: (orderId: number, token: string) =>
     apiFetch<OrderResponse>(`/api/orders/${orderId}`, { method: 'GET' }, token),
   createOrder: (req: { orderNumber: string; priority?: number | null; notes?: string | null }, token: string) =>
@@ -121,6 +151,11 @@ export const WorkflowApi = {
       method: 'PATCH',
       body: JSON.stringify(payload),
     }, token),
+  batchStageActions: (actions: BatchStageAction[], token: string) =>
+    apiFetch<BatchStageActionResponse>('/api/operator/batch', {
+      method: 'POST',
+      body: JSON.stringify({ actions }),
+    }, token),
   wipSummary: (token: string) => apiFetch<WipSummaryResponse>('/api/supervisor/wip', { method: 'GET' }, token),
   approveSkip: (orderId: number, stage: StageType, payload: { approver: string; notes?: string | null }, token: string) =>
     apiFetch(`/api/supervisor/orders/${orderId}/stages/${stage}/approve-skip`, {
@@ -132,8 +167,17 @@ export const WorkflowApi = {
       method: 'POST',
       body: JSON.stringify(payload),
     }, token),
-  listAiConversations: (token: string) =>
-    apiFetch<AiConversationSummaryResponse[]>('/api/ai/conversations', { method: 'GET' }, token),
+  listAiConversations: (token: string, query: { cursor?: string | null; limit?: number } = {}) => {
+    const params = new URLSearchParams();
+    if (query.cursor) params.set('cursor', query.cursor);
+    if (query.limit !== undefined) params.set('limit', String(query.limit));
+    const search = params.toString();
+    return apiFetch<AiConversationPageResponse>(
+      `/api/ai/conversations${search ? `?${search}` : ''}`,
+      { method: 'GET' },
+      token,
+    );
+  },
   createAiConversation: (
     payload: { title?: string | null; initialMessage?: string | null },
     token: string,
@@ -148,12 +192,27 @@ export const WorkflowApi = {
     ),
   getAiConversation: (conversationId: number, token: string) =>
     apiFetch<AiConversationResponse>(`/api/ai/conversations/${conversationId}`, { method: 'GET' }, token),
-  sendAiMessage: (conversationId: number, content: string, token: string) =>
+  getAiMessages: (conversationId: number, token: string, before?: number, limit?: number) => {
+    const params = new URLSearchParams();
+    if (before !== undefined) {
+      params.set('before', String(before));
+    }
+    if (limit !== undefined) {
+      params.set('limit', String(limit));
+    }
+    const query = params.toString();
+    return apiFetch<AiMessagePageResponse>(
+      `/api/ai/conversations/${conversationId}/messages${query ? `?${query}` : ''}`,
+      { method: 'GET' },
+      token,
+    );
+  },
+  sendAiMessage: (conversationId: number, content: string, token: string, noCache?: boolean) =>
     apiFetch<AiConversationResponse>(
       `/api/ai/conversations/${conversationId}/messages`,
       {
         method: 'POST',
-        body: JSON.stringify({ content }),
+        body: JSON.stringify({ content, noCache }),
       },
       token,
     ),
@@ -163,6 +222,7 @@ export const WorkflowApi = {
     token: string,
     onEvent: (event: AiStreamEvent) => void,
     signal?: AbortSignal,
+    noCache?: boolean,
   ) => {
     const response = await fetch(`${API_BASE_URL}/api/ai/conversations/${conversationId}/messages`, {
       method: 'POST',
@@ -171,7 +231,7 @@ export const WorkflowApi = {
         'Content-Type': 'application/json',
         Authorization: `Basic ${token}`,
       },
-      body: JSON.stringify({ content }),
+      body: JSON.stringify({ content, noCache }),
       signal,
     });
 
@@ -241,6 +301,60 @@ export const WorkflowApi = {
     ),
   deleteAiConversation: (conversationId: number, token: string) =>
     apiFetch<void>(`/api/ai/conversations/${conversationId}`, { method: 'DELETE' }, token),
+  subscribeWorkflowEvents: async (
+    token: string,
+    options: { stages?: StageType[]; lastEventId?: string | null },
+    onEvent: (event: WorkflowStreamEvent, eventId: string | null) => void,
+    signal?: AbortSignal,
+  ) => {
+    const params = new URLSearchParams();
+    options.stages?.forEach((stage) => params.append('stages', stage));
+    const headers: Record<string, string> = {
+      Accept: 'text/event-stream',
+      Authorization: `Basic ${token}`,
+    };
+    if (options.lastEventId) {
+      headers['Last-Event-ID'] = options.lastEventId;
+    }
+    const query = params.toString();
+    const response = await fetch(`${API_BASE_URL}/api/events${query ? `?${query}` : ''}`, {
+      headers,
+      signal,
+    });
+
+    if (!response.ok) {
+      throw new Error(response.statusText || 'Failed to subscribe to workflow events');
+    }
+    if (!response.body) {
+      throw new Error('This browser does not support streaming responses.');
+    }
+
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = '';
+
+    const processBuffer = () => {
+      let separatorIndex: number;
+      while ((separatorIndex = buffer.indexOf('\n\n')) !== -1) {
+        const chunk = buffer.slice(0, separatorIndex);
+        buffer = buffer.slice(separatorIndex + 2);
+        emitWorkflowEvent(chunk, onEvent);
+      }
+    };
+
+    try {
+      while (true) {
+        const { value, done } = await reader.read();
+        if (done) {
+          break;
+        }
+        buffer += decoder.decode(value, { stream: true });
+        processBuffer();
+      }
+    } finally {
+      reader.releaseLock();
+    }
+  },
 };
 
 function emitStreamEvent(rawChunk: string, onEvent: (event: AiStreamEvent) => void) {
@@ -254,12 +368,40 @@ function emitStreamEvent(rawChunk: string, onEvent: (event: AiStreamEvent) => vo
   }
 }
 
-function parseSseChunk(chunk: string): { event: string; data: unknown } | null {
+function emitWorkflowEvent(
+  rawChunk: string,
+  onEvent: (event: WorkflowStreamEvent, eventId: string | null) => void,
+) {
+  const parsed = parseSseChunk(rawChunk);
+  if (!parsed) {
+    return;
+  }
+  switch (parsed.event) {
+    case 'order':
+      if (parsed.data && typeof parsed.data === 'object') {
+        onEvent({ type: 'order', event: parsed.data as WorkflowOrderEvent }, parsed.id);
+      }
+      return;
+    case 'wip':
+      if (parsed.data && typeof parsed.data === 'object') {
+        onEvent({ type: 'wip', summary: parsed.data as WipSummaryResponse }, parsed.id);
+      }
+      return;
+    case 'resync':
+      onEvent({ type: 'resync' }, parsed.id);
+      return;
+    default:
+      return;
+  }
+}
+
+function parseSseChunk(chunk: string): { event: string; data: unknown; id: string | null } | null {
   if (!chunk) {
     return null;
   }
   const lines = chunk.split('\n');
   let eventName = 'message';
+  let eventId: string | null = null;
   const dataLines: string[] = [];
 
   for (const rawLine of lines) {
@@ -274,6 +416,10 @@ function parseSseChunk(chunk: string): { event: string; data: unknown } | null {
       eventName = line.slice(6).trim();
       continue;
     }
+    if (line.startsWith('id:')) {
+      eventId = line.slice(3).trim();
+      continue;
+    }
     if (line.startsWith('data:')) {
       const value = line.slice(5);
       dataLines.push(value.startsWith(' ') ? value.slice(1) : value);
@@ -293,7 +439,7 @@ function parseSseChunk(chunk: string): { event: string; data: unknown } | null {
       data = payload;
     }
   }
-  return { event: eventName || 'message', data };
+  return { event: eventName || 'message', data, id: eventId };
 }
 
 function mapToStreamEvent(parsed: { event: string; data: unknown }): AiStreamEvent | null {
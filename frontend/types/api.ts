@@ -45,6 +45,12 @@ export interface OrderResponse {
   stages: OrderStageStatus[];
 }
 
+export interface OrderPageResponse {
+  items: OrderResponse[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
 export interface WorkQueueItem {
   orderId: number;
   orderNumber: string;
@@ -59,6 +65,34 @@ export interface WorkQueueItem {
   exceptionReason: string | null;
   notes: string | null;
   checklist: ChecklistItem[];
+  orderCreatedAt: string | null;
+}
+
+export interface BatchStageAction {
+  type: 'CLAIM' | 'CHECKLIST' | 'COMPLETE' | 'FLAG';
+  orderId: number;
+  stage: StageType;
+  assignee?: string;
+  taskId?: string;
+  completed?: boolean;
+  serviceTimeMinutes?: number | null;
+  notes?: string | null;
+  exceptionReason?: string;
+}
+
+export interface BatchStageActionResult {
+  index: number;
+  orderId: number;
+  stage: string;
+  success: boolean;
+  error: string | null;
+  status: OrderStageStatus | null;
+}
+
+export interface BatchStageActionResponse {
+  succeeded: number;
+  failed: number;
+  results: BatchStageActionResult[];
 }
 
 export interface StageSummaryResponse {
@@ -91,6 +125,12 @@ export interface AiConversationSummaryResponse {
   lastMessagePreview: string | null;
 }
 
+export interface AiConversationPageResponse {
+  items: AiConversationSummaryResponse[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
 export interface AiMessageResponse {
   id: number;
   role: AiMessageRole;
@@ -104,9 +144,45 @@ export interface AiConversationResponse {
   createdAt: string;
   updatedAt: string;
   messages: AiMessageResponse[];
+  nextBefore: number | null;
+}
+
+export interface AiMessagePageResponse {
+  messages: AiMessageResponse[];
+  nextBefore: number | null;
 }
 
 export type AiStreamEvent =
   | { type: 'token'; delta: string }
   | { type: 'conversation'; conversation: AiConversationResponse }
   | { type: 'error'; message: string };
+
+export type WorkflowAction =
+  | 'CREATED'
+  | 'CLAIMED'
+  | 'CHECKLIST_UPDATED'
+  | 'COMPLETED'
+  | 'EXCEPTION_FLAGGED'
+  | 'SKIP_APPROVED'
+  | 'REWORK_REQUESTED'
+  | 'REPRIORITIZED';
+
+export interface WorkflowStageChange {
+  stage: StageType;
+  previousState: StageState | null;
+  state: StageState;
+}
+
+export interface WorkflowOrderEvent {
+  id: number;
+  action: WorkflowAction;
+  occurredAt: string;
+  previousOverallState: StageState | null;
+  stageChanges: WorkflowStageChange[];
+  order: OrderResponse;
+}
+
+export type WorkflowStreamEvent =
+  | { type: 'order'; event: WorkflowOrderEvent }
+  | { type: 'wip'; summary: WipSummaryResponse }
+  | { type: 'resync' };